@@ -0,0 +1,111 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.entitlement;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the {@link DynamicEntitlementEvaluator} from the purchase JSON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DynamicEntitlementEvaluatorBenchmark {
+
+    /**
+     * Number of registered features.
+     */
+    @Param({ "100", "1000" })
+    public int features;
+
+    /**
+     * Number of purchases to be evaluated.
+     */
+    @Param({ "1", "10" })
+    public int purchases;
+
+    /**
+     * Evaluator with the registered features.
+     */
+    private DynamicEntitlementEvaluator evaluator;
+
+    /**
+     * Original JSON of the purchases to be evaluated.
+     */
+    private List<String> json;
+
+    /**
+     * Parsed purchases to be evaluated.
+     */
+    private List<DynamicPurchaseRecord> records;
+
+    /**
+     * Register the features and build the purchases to be evaluated.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        evaluator = new DynamicEntitlementEvaluator();
+        for (int i = 0; i < features; i++) {
+            evaluator.registerFeature("feature_" + i, Arrays.asList(
+                    "product_" + i, "product_" + (i / 10), "lifetime"));
+        }
+
+        json = new ArrayList<>(purchases);
+        records = new ArrayList<>(purchases);
+        for (int i = 0; i < purchases; i++) {
+            json.add("{\"orderId\":\"GPA.1234-" + i + "\",\"packageName\":\"com.example\","
+                    + "\"productIds\":[\"product_" + (i * 7) + "\"],"
+                    + "\"purchaseTime\":1700000000000,\"purchaseState\":0,"
+                    + "\"purchaseToken\":\"token_" + i + "\",\"quantity\":1,"
+                    + "\"autoRenewing\":true,\"acknowledged\":true}");
+            records.add(DynamicPurchaseRecord.parse(json.get(i)));
+        }
+    }
+
+    /**
+     * Benchmark the evaluation of the parsed purchases.
+     *
+     * @return The evaluated snapshot.
+     */
+    @Benchmark
+    public DynamicEntitlementSnapshot evaluate() {
+        return evaluator.evaluate(1, records);
+    }
+
+    /**
+     * Benchmark the parsing and evaluation of the purchase JSON.
+     *
+     * @return The evaluated snapshot.
+     */
+    @Benchmark
+    public DynamicEntitlementSnapshot evaluateJson() {
+        return evaluator.evaluateJson(1, json);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the {@link BillingPeriod} parser.
+ * <p>The periods cover the simple and compound periods within the cached range along with
+ * the ones resolving to an uncached count.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BillingPeriodBenchmark {
+
+    /**
+     * State to hold the periods to be parsed.
+     */
+    @State(Scope.Benchmark)
+    public static class Periods {
+
+        /**
+         * ISO 8601 formatted period to be parsed.
+         */
+        @Param({ "P1M", "P1Y", "P1Y6M", "P1W3D", "P48M", "P2Y6M", "P1DT12H" })
+        public String period;
+    }
+
+    /**
+     * State to hold the counts to be resolved.
+     */
+    @State(Scope.Benchmark)
+    public static class Counts {
+
+        /**
+         * Count for the period to be resolved, within and beyond the cached range.
+         */
+        @Param({ "1", "31", "48" })
+        public int count;
+    }
+
+    /**
+     * Benchmark the parsing of the period.
+     *
+     * @param periods The state to get the period.
+     *
+     * @return The parsed period.
+     */
+    @Benchmark
+    public BillingPeriod parse(Periods periods) {
+        return BillingPeriod.parse(periods.period);
+    }
+
+    /**
+     * Benchmark the resolving of the period from its unit and count.
+     *
+     * @param counts The state to get the count.
+     *
+     * @return The resolved period.
+     */
+    @Benchmark
+    public BillingPeriod valueOf(Counts counts) {
+        return BillingPeriod.valueOf(BillingPeriod.Unit.MONTH, counts.count);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip benchmarks for the {@link DynamicCatalogCodec}.
+ * <p>The encoded size is reported once per trial so that it can be compared with the
+ * parceled extras.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DynamicCatalogCodecBenchmark {
+
+    /**
+     * Number of products in the catalog.
+     */
+    @Param({ "10", "100", "1000" })
+    public int products;
+
+    /**
+     * Number of features offered by each product.
+     */
+    @Param({ "8" })
+    public int features;
+
+    /**
+     * Encoded catalog to benchmark the decoding.
+     */
+    private byte[] data;
+
+    /**
+     * Encode the catalog to be decoded and report its size.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        data = encode();
+        System.out.println("\nEncoded size: " + data.length + " bytes");
+    }
+
+    /**
+     * Encode a catalog where all the products share the same features.
+     *
+     * @return The encoded catalog.
+     */
+    private byte[] encode() {
+        DynamicCatalogCodec.Writer writer = new DynamicCatalogCodec.Writer();
+        int[] featureIndexes = new int[features];
+        for (int i = 0; i < features; i++) {
+            featureIndexes[i] = writer.addFeature("feature_" + i,
+                    0x7f080000 + i, 0x7f130000 + i, 0x7f130100 + i, false);
+        }
+
+        int[] list = new int[products];
+        for (int i = 0; i < products; i++) {
+            list[i] = writer.addProduct("product_" + i,
+                    i % 2 == 0 ? "inapp" : "subs", true);
+
+            for (int feature : featureIndexes) {
+                writer.addProductFeature(list[i], feature);
+                writer.addFeatureProduct(feature, list[i]);
+            }
+        }
+
+        writer.putList("inapp", list);
+        writer.putList("subs", list);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Benchmark the encoding of a catalog.
+     *
+     * @return The encoded catalog.
+     */
+    @Benchmark
+    public byte[] encodeCatalog() {
+        return encode();
+    }
+
+    /**
+     * Benchmark the decoding of a catalog.
+     *
+     * @param blackhole The blackhole to consume the decoded values.
+     */
+    @Benchmark
+    public void decodeCatalog(Blackhole blackhole) {
+        DynamicCatalogCodec.Reader reader = new DynamicCatalogCodec.Reader(data);
+        for (int i = 0; i < reader.getProductCount(); i++) {
+            blackhole.consume(reader.getProductId(i));
+            blackhole.consume(reader.getProductFeatures(i));
+        }
+
+        blackhole.consume(reader.getList("inapp"));
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.entitlement;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An evaluator to compute the entitlements from the purchases without the Android framework.
+ * <p>A feature is enabled if any of its products has been purchased by using the
+ * {@link DynamicEntitlementRule}, in the same way as the {@code DynamicEntitlementRegistry}
+ * on the device.
+ *
+ * <p>Features are registered once and the index is rebuilt lazily, so the evaluation is
+ * lock-free and can be performed concurrently from any thread.
+ *
+ * <pre>
+ *     evaluator.registerFeature("ads", Arrays.asList("premium", "lifetime"));
+ *     evaluator.evaluateJson(version, purchasesJson).isEnabled("ads");
+ * </pre>
+ */
+public class DynamicEntitlementEvaluator {
+
+    /**
+     * Map to hold the product indexes mapped with their id.
+     */
+    private final Map<String, Integer> mProductIndexes;
+
+    /**
+     * Map to hold the products of a feature mapped with the feature id.
+     */
+    private final Map<String, Set<String>> mFeatures;
+
+    /**
+     * Immutable index used for the evaluation, {@code null} if it has to be rebuilt.
+     */
+    private volatile Index mIndex;
+
+    /**
+     * Constructor to initialize an object of this class.
+     */
+    public DynamicEntitlementEvaluator() {
+        this.mProductIndexes = new HashMap<>();
+        this.mFeatures = new LinkedHashMap<>();
+    }
+
+    /**
+     * Register a feature along with its products.
+     * <p>An existing feature with the same id will be replaced.
+     *
+     * @param featureId The id of the feature.
+     * @param productIds The products to enable the feature.
+     *
+     * @return The {@link DynamicEntitlementEvaluator} object to allow for chaining of calls
+     *         to register methods.
+     */
+    public synchronized @NonNull DynamicEntitlementEvaluator registerFeature(
+            @NonNull String featureId, @Nullable Collection<String> productIds) {
+        Set<String> products = new LinkedHashSet<>();
+        if (productIds != null) {
+            for (String productId : productIds) {
+                if (!mProductIndexes.containsKey(productId)) {
+                    mProductIndexes.put(productId, mProductIndexes.size());
+                }
+
+                products.add(productId);
+            }
+        }
+
+        mFeatures.put(featureId, products);
+        mIndex = null;
+
+        return this;
+    }
+
+    /**
+     * Register the supplied features along with their products.
+     *
+     * @param features The products to enable a feature mapped with the feature id.
+     *
+     * @return The {@link DynamicEntitlementEvaluator} object to allow for chaining of calls
+     *         to register methods.
+     */
+    public synchronized @NonNull DynamicEntitlementEvaluator registerFeatures(
+            @NonNull Map<String, ? extends Collection<String>> features) {
+        for (Map.Entry<String, ? extends Collection<String>> entry : features.entrySet()) {
+            registerFeature(entry.getKey(), entry.getValue());
+        }
+
+        return this;
+    }
+
+    /**
+     * Returns the immutable index to evaluate the entitlements.
+     *
+     * @return The immutable index to evaluate the entitlements.
+     */
+    private @NonNull Index getIndex() {
+        Index index = mIndex;
+        if (index != null) {
+            return index;
+        }
+
+        synchronized (this) {
+            if (mIndex == null) {
+                mIndex = new Index(mProductIndexes, mFeatures);
+            }
+
+            return mIndex;
+        }
+    }
+
+    /**
+     * Evaluate the entitlements for the supplied purchases.
+     * <p>Only the purchased state will be considered and the unknown products are ignored.
+     *
+     * @param version The version of the returned snapshot.
+     * @param purchases The purchases to be evaluated.
+     *
+     * @return The snapshot of the evaluated entitlements.
+     */
+    public @NonNull DynamicEntitlementSnapshot evaluate(long version,
+            @Nullable Iterable<DynamicPurchaseRecord> purchases) {
+        Index index = getIndex();
+        long[] purchased = new long[DynamicEntitlementRule.getWords(
+                index.productIndexes.size())];
+        if (purchases != null) {
+            for (DynamicPurchaseRecord purchase : purchases) {
+                if (!purchase.isPurchased()) {
+                    continue;
+                }
+
+                for (String productId : purchase.getProductIds()) {
+                    Integer product = index.productIndexes.get(productId);
+                    if (product != null) {
+                        DynamicEntitlementRule.set(purchased, product);
+                    }
+                }
+            }
+        }
+
+        return DynamicEntitlementSnapshot.of(version, index.productIndexes,
+                index.featureIndexes, purchased, DynamicEntitlementRule.getEnabled(
+                        index.masks, index.masks.length, purchased));
+    }
+
+    /**
+     * Evaluate the entitlements for the supplied purchase JSON.
+     *
+     * @param version The version of the returned snapshot.
+     * @param purchases The original JSON of the purchases to be evaluated.
+     *
+     * @return The snapshot of the evaluated entitlements.
+     *
+     * @throws IllegalArgumentException If any of the purchase JSON is malformed.
+     *
+     * @see DynamicPurchaseRecord#parse(String)
+     */
+    public @NonNull DynamicEntitlementSnapshot evaluateJson(long version,
+            @Nullable Collection<String> purchases) {
+        List<DynamicPurchaseRecord> records = new ArrayList<>(
+                purchases != null ? purchases.size() : 0);
+        if (purchases != null) {
+            for (String purchase : purchases) {
+                records.add(DynamicPurchaseRecord.parse(purchase));
+            }
+        }
+
+        return evaluate(version, records);
+    }
+
+    /**
+     * An immutable index to evaluate the entitlements.
+     */
+    private static final class Index {
+
+        /**
+         * Unmodifiable map of the product indexes mapped with their id.
+         */
+        final Map<String, Integer> productIndexes;
+
+        /**
+         * Unmodifiable map of the feature indexes mapped with their id.
+         */
+        final Map<String, Integer> featureIndexes;
+
+        /**
+         * Bitsets of the products for each feature.
+         */
+        final long[][] masks;
+
+        /**
+         * Constructor to initialize an object of this class.
+         *
+         * @param productIndexes The product indexes mapped with their id.
+         * @param features The products of a feature mapped with the feature id.
+         */
+        Index(@NonNull Map<String, Integer> productIndexes,
+                @NonNull Map<String, Set<String>> features) {
+            Map<String, Integer> featureIndexes = new HashMap<>();
+            int words = DynamicEntitlementRule.getWords(productIndexes.size());
+
+            this.masks = new long[features.size()][];
+            for (Map.Entry<String, Set<String>> entry : features.entrySet()) {
+                int feature = featureIndexes.size();
+                long[] mask = new long[words];
+                for (String productId : entry.getValue()) {
+                    DynamicEntitlementRule.set(mask, productIndexes.get(productId));
+                }
+
+                featureIndexes.put(entry.getKey(), feature);
+                masks[feature] = mask;
+            }
+
+            this.productIndexes = Collections.unmodifiableMap(new HashMap<>(productIndexes));
+            this.featureIndexes = Collections.unmodifiableMap(featureIndexes);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.entitlement;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Bitset rule to resolve the entitlements, a feature is enabled if any of its products
+ * has been purchased.
+ * <p>It is shared by the {@link DynamicEntitlementEvaluator} and the
+ * {@code DynamicEntitlementRegistry} on the device, so that both of them resolve the
+ * entitlements in the same way.
+ */
+public final class DynamicEntitlementRule {
+
+    /**
+     * Number of bits in a bitset word.
+     */
+    public static final int WORD_SIZE = 64;
+
+    /**
+     * Making default constructor private so that it cannot be initialized.
+     */
+    private DynamicEntitlementRule() { }
+
+    /**
+     * Returns the number of words required for the supplied number of bits.
+     *
+     * @param bits The number of bits.
+     *
+     * @return The number of words required for the supplied number of bits.
+     */
+    public static int getWords(int bits) {
+        return (bits + WORD_SIZE - 1) / WORD_SIZE;
+    }
+
+    /**
+     * Checks whether a bit is set in the supplied bitset.
+     *
+     * @param bitset The bitset to be checked.
+     * @param index The index of the bit.
+     *
+     * @return {@code true} if the bit is set in the supplied bitset.
+     */
+    public static boolean get(@NonNull long[] bitset, int index) {
+        return index >= 0 && index / WORD_SIZE < bitset.length
+                && (bitset[index / WORD_SIZE] & (1L << (index % WORD_SIZE))) != 0;
+    }
+
+    /**
+     * Set a bit in the supplied bitset and grow it if required.
+     *
+     * @param bitset The bitset to be modified.
+     * @param index The index of the bit to be set.
+     *
+     * @return The modified bitset.
+     */
+    public static @NonNull long[] set(@NonNull long[] bitset, int index) {
+        int word = index / WORD_SIZE;
+        if (word >= bitset.length) {
+            bitset = Arrays.copyOf(bitset, word + 1);
+        }
+
+        bitset[word] |= 1L << (index % WORD_SIZE);
+        return bitset;
+    }
+
+    /**
+     * Returns whether a feature is enabled by any of the purchased products.
+     *
+     * @param products The bitset of the products to enable the feature.
+     * @param purchased The bitset of the purchased products.
+     *
+     * @return {@code true} if the feature is enabled by any of the purchased products.
+     */
+    public static boolean isEnabled(@NonNull long[] products, @NonNull long[] purchased) {
+        int words = Math.min(products.length, purchased.length);
+        for (int i = 0; i < words; i++) {
+            if ((products[i] & purchased[i]) != 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the bitset of the features enabled by the purchased products.
+     *
+     * @param products The bitsets of the products to enable each feature.
+     * @param count The number of features to be resolved.
+     * @param purchased The bitset of the purchased products.
+     *
+     * @return The bitset of the enabled features.
+     */
+    public static @NonNull long[] getEnabled(@NonNull long[][] products,
+            int count, @NonNull long[] purchased) {
+        long[] enabled = new long[getWords(count)];
+        for (int i = 0; i < count; i++) {
+            if (isEnabled(products[i], purchased)) {
+                enabled[i / WORD_SIZE] |= 1L << (i % WORD_SIZE);
+            }
+        }
+
+        return enabled;
+    }
+}
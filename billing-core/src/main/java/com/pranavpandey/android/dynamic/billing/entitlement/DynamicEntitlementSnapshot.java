@@ -0,0 +1,194 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.entitlement;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * An immutable and versioned snapshot of the entitlement state.
+ * <p>It can be safely shared and read from any thread to get a consistent view of all
+ * the registered features and products.
+ *
+ * <p>It is created by the {@code DynamicEntitlementRegistry} on the device or by the
+ * {@link DynamicEntitlementEvaluator} from the purchase JSON.
+ */
+public final class DynamicEntitlementSnapshot {
+
+    /**
+     * Empty snapshot without any entitlement.
+     */
+    public static final DynamicEntitlementSnapshot EMPTY = new DynamicEntitlementSnapshot(0,
+            Collections.<String, Integer>emptyMap(), Collections.<String, Integer>emptyMap(),
+            new long[0], new long[0]);
+
+    /**
+     * Version of this snapshot.
+     */
+    private final long version;
+
+    /**
+     * Unmodifiable map of the product indexes mapped with their id.
+     */
+    private final Map<String, Integer> productIndexes;
+
+    /**
+     * Unmodifiable map of the feature indexes mapped with their id.
+     */
+    private final Map<String, Integer> featureIndexes;
+
+    /**
+     * Bitset of the purchased products.
+     */
+    private final long[] purchased;
+
+    /**
+     * Bitset of the enabled features.
+     */
+    private final long[] enabled;
+
+    /**
+     * Constructor to initialize an object of this class.
+     *
+     * @param version The version of this snapshot.
+     * @param productIndexes The unmodifiable map of the product indexes.
+     * @param featureIndexes The unmodifiable map of the feature indexes.
+     * @param purchased The bitset of the purchased products, it must not be modified later.
+     * @param enabled The bitset of the enabled features, it must not be modified later.
+     */
+    private DynamicEntitlementSnapshot(long version,
+            @NonNull Map<String, Integer> productIndexes,
+            @NonNull Map<String, Integer> featureIndexes,
+            @NonNull long[] purchased, @NonNull long[] enabled) {
+        this.version = version;
+        this.productIndexes = productIndexes;
+        this.featureIndexes = featureIndexes;
+        this.purchased = purchased;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns a snapshot for the supplied entitlement state.
+     * <p>The bitsets will be copied and the maps will be wrapped as unmodifiable, so the
+     * index maps must not be modified later.
+     *
+     * @param version The version of the snapshot.
+     * @param productIndexes The product indexes mapped with their id.
+     * @param featureIndexes The feature indexes mapped with their id.
+     * @param purchased The bitset of the purchased products.
+     * @param enabled The bitset of the enabled features.
+     *
+     * @return The snapshot for the supplied entitlement state.
+     *
+     * @see DynamicEntitlementRule
+     */
+    public static @NonNull DynamicEntitlementSnapshot of(long version,
+            @NonNull Map<String, Integer> productIndexes,
+            @NonNull Map<String, Integer> featureIndexes,
+            @NonNull long[] purchased, @NonNull long[] enabled) {
+        return new DynamicEntitlementSnapshot(version,
+                Collections.unmodifiableMap(productIndexes),
+                Collections.unmodifiableMap(featureIndexes),
+                purchased.clone(), enabled.clone());
+    }
+
+    /**
+     * Checks whether a bit is set in the supplied bitset.
+     *
+     * @param bitset The bitset to be checked.
+     * @param index The index of the bit.
+     *
+     * @return {@code true} if the bit is set in the supplied bitset.
+     */
+    private static boolean get(@NonNull long[] bitset, @Nullable Integer index) {
+        return index != null && DynamicEntitlementRule.get(bitset, index);
+    }
+
+    /**
+     * Returns the version of this snapshot.
+     *
+     * @return The version of this snapshot, a higher version represents a newer state.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns whether the supplied feature is enabled in this snapshot.
+     *
+     * @param featureId The id of the feature.
+     *
+     * @return {@code true} if the supplied feature is enabled in this snapshot.
+     */
+    public boolean isEnabled(@Nullable String featureId) {
+        return get(enabled, featureIndexes.get(featureId));
+    }
+
+    /**
+     * Returns whether the supplied product is purchased in this snapshot.
+     *
+     * @param productId The id of the product.
+     *
+     * @return {@code true} if the supplied product is purchased in this snapshot.
+     */
+    public boolean isPurchased(@Nullable String productId) {
+        return get(purchased, productIndexes.get(productId));
+    }
+
+    /**
+     * Returns whether any of the registered features is enabled in this snapshot.
+     *
+     * @return {@code true} if any of the registered features is enabled in this snapshot.
+     */
+    public boolean isAnyEnabled() {
+        for (long word : enabled) {
+            if (word != 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns a copy of the purchased products bitset.
+     *
+     * @return A copy of the purchased products bitset.
+     */
+    public @NonNull long[] getPurchased() {
+        return purchased.clone();
+    }
+
+    /**
+     * Returns a copy of the enabled features bitset.
+     *
+     * @return A copy of the enabled features bitset.
+     */
+    public @NonNull long[] getEnabled() {
+        return enabled.clone();
+    }
+
+    @Override
+    public @NonNull String toString() {
+        return "DynamicEntitlementSnapshot{version=" + version
+                + ", products=" + productIndexes.size() + ", features=" + featureIndexes.size()
+                + ", enabled=" + isAnyEnabled() + "}";
+    }
+}
@@ -0,0 +1,416 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.entitlement;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable purchase parsed from the original JSON of a Google Play purchase.
+ * <p>It does not depend on the Android framework, so it can be used to evaluate the
+ * entitlements on a plain JVM like a backend server.
+ *
+ * @see #parse(String)
+ */
+public final class DynamicPurchaseRecord {
+
+    /**
+     * Constant for the purchased state.
+     */
+    public static final int STATE_PURCHASED = 1;
+
+    /**
+     * Constant for the pending state.
+     */
+    public static final int STATE_PENDING = 2;
+
+    /**
+     * Raw value of the pending state in the purchase JSON.
+     */
+    private static final int JSON_STATE_PENDING = 4;
+
+    /**
+     * Ids of the purchased products.
+     */
+    private final List<String> productIds;
+
+    /**
+     * Token of the purchase.
+     */
+    private final String purchaseToken;
+
+    /**
+     * Time of the purchase in milliseconds.
+     */
+    private final long purchaseTime;
+
+    /**
+     * State of the purchase.
+     */
+    private final int purchaseState;
+
+    /**
+     * {@code true} if the purchase is auto renewing.
+     */
+    private final boolean autoRenewing;
+
+    /**
+     * Constructor to initialize an object of this class.
+     *
+     * @param productIds The ids of the purchased products.
+     * @param purchaseToken The token of the purchase.
+     * @param purchaseTime The time of the purchase in milliseconds.
+     * @param purchaseState The state of the purchase.
+     * @param autoRenewing {@code true} if the purchase is auto renewing.
+     */
+    public DynamicPurchaseRecord(@NonNull List<String> productIds,
+            @Nullable String purchaseToken, long purchaseTime,
+            int purchaseState, boolean autoRenewing) {
+        this.productIds = Collections.unmodifiableList(new ArrayList<>(productIds));
+        this.purchaseToken = purchaseToken;
+        this.purchaseTime = purchaseTime;
+        this.purchaseState = purchaseState;
+        this.autoRenewing = autoRenewing;
+    }
+
+    /**
+     * Parse the original JSON of a Google Play purchase.
+     * <p>The {@code productIds} array is preferred over the legacy {@code productId} and
+     * the raw purchase state is mapped in the same way as the billing library.
+     *
+     * @param json The original JSON of the purchase.
+     *
+     * @return The parsed purchase.
+     *
+     * @throws IllegalArgumentException If the supplied JSON is malformed.
+     */
+    public static @NonNull DynamicPurchaseRecord parse(@NonNull String json) {
+        Reader reader = new Reader(json);
+        List<String> productIds = new ArrayList<>();
+        String productId = null;
+        String purchaseToken = null;
+        long purchaseTime = 0;
+        int purchaseState = STATE_PURCHASED;
+        boolean autoRenewing = false;
+
+        reader.expect('{');
+        if (!reader.consume('}')) {
+            do {
+                String key = reader.readString();
+                reader.expect(':');
+
+                if ("productIds".equals(key) && reader.peek() == '[') {
+                    reader.expect('[');
+                    if (!reader.consume(']')) {
+                        do {
+                            productIds.add(reader.readString());
+                        } while (reader.consume(','));
+                        reader.expect(']');
+                    }
+                } else if ("productId".equals(key) && reader.peek() == '"') {
+                    productId = reader.readString();
+                } else if ("purchaseToken".equals(key) && reader.peek() == '"') {
+                    purchaseToken = reader.readString();
+                } else if ("purchaseTime".equals(key)) {
+                    purchaseTime = reader.readLong();
+                } else if ("purchaseState".equals(key)) {
+                    purchaseState = reader.readLong() == JSON_STATE_PENDING
+                            ? STATE_PENDING : STATE_PURCHASED;
+                } else if ("autoRenewing".equals(key)) {
+                    autoRenewing = reader.readBoolean();
+                } else {
+                    reader.skipValue();
+                }
+            } while (reader.consume(','));
+            reader.expect('}');
+        }
+
+        if (productIds.isEmpty() && productId != null) {
+            productIds.add(productId);
+        }
+
+        return new DynamicPurchaseRecord(productIds, purchaseToken,
+                purchaseTime, purchaseState, autoRenewing);
+    }
+
+    /**
+     * Returns the ids of the purchased products.
+     *
+     * @return The ids of the purchased products.
+     */
+    public @NonNull List<String> getProductIds() {
+        return productIds;
+    }
+
+    /**
+     * Returns the token of the purchase.
+     *
+     * @return The token of the purchase.
+     */
+    public @Nullable String getPurchaseToken() {
+        return purchaseToken;
+    }
+
+    /**
+     * Returns the time of the purchase in milliseconds.
+     *
+     * @return The time of the purchase in milliseconds.
+     */
+    public long getPurchaseTime() {
+        return purchaseTime;
+    }
+
+    /**
+     * Returns the state of the purchase.
+     *
+     * @return The state of the purchase.
+     *
+     * @see #STATE_PURCHASED
+     * @see #STATE_PENDING
+     */
+    public int getPurchaseState() {
+        return purchaseState;
+    }
+
+    /**
+     * Returns whether this purchase is in the purchased state.
+     *
+     * @return {@code true} if this purchase is in the purchased state.
+     */
+    public boolean isPurchased() {
+        return purchaseState == STATE_PURCHASED;
+    }
+
+    /**
+     * Returns whether this purchase is auto renewing.
+     *
+     * @return {@code true} if this purchase is auto renewing.
+     */
+    public boolean isAutoRenewing() {
+        return autoRenewing;
+    }
+
+    /**
+     * A minimal JSON reader to parse the purchase without any dependency.
+     */
+    private static final class Reader {
+
+        /**
+         * JSON to be read.
+         */
+        private final String json;
+
+        /**
+         * Current position of this reader.
+         */
+        private int position;
+
+        /**
+         * Constructor to initialize an object of this class.
+         *
+         * @param json The JSON to be read.
+         */
+        Reader(@NonNull String json) {
+            this.json = json;
+        }
+
+        /**
+         * Returns an exception for the current position.
+         *
+         * @param message The message for the exception.
+         *
+         * @return An exception for the current position.
+         */
+        @NonNull IllegalArgumentException error(@NonNull String message) {
+            return new IllegalArgumentException(message + " at " + position);
+        }
+
+        /**
+         * Returns the next non-whitespace character without consuming it.
+         *
+         * @return The next non-whitespace character, otherwise {@code 0} at the end.
+         */
+        char peek() {
+            while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+                position++;
+            }
+
+            return position < json.length() ? json.charAt(position) : 0;
+        }
+
+        /**
+         * Consume the supplied character if it is the next one.
+         *
+         * @param c The character to be consumed.
+         *
+         * @return {@code true} if the character has been consumed.
+         */
+        boolean consume(char c) {
+            if (peek() == c) {
+                position++;
+                return true;
+            }
+
+            return false;
+        }
+
+        /**
+         * Consume the supplied character or throw an exception.
+         *
+         * @param c The character to be consumed.
+         */
+        void expect(char c) {
+            if (!consume(c)) {
+                throw error("Expected '" + c + "'");
+            }
+        }
+
+        /**
+         * Read a string value.
+         *
+         * @return The string value.
+         */
+        @NonNull String readString() {
+            expect('"');
+            StringBuilder builder = null;
+            int start = position;
+
+            while (position < json.length()) {
+                char c = json.charAt(position++);
+                if (c == '"') {
+                    return builder == null ? json.substring(start, position - 1)
+                            : builder.append(json, start, position - 1).toString();
+                }
+
+                if (c != '\\') {
+                    continue;
+                }
+
+                if (builder == null) {
+                    builder = new StringBuilder();
+                }
+
+                builder.append(json, start, position - 1);
+                if (position >= json.length()) {
+                    break;
+                }
+
+                c = json.charAt(position++);
+                switch (c) {
+                    case 'b': builder.append('\b'); break;
+                    case 'f': builder.append('\f'); break;
+                    case 'n': builder.append('\n'); break;
+                    case 'r': builder.append('\r'); break;
+                    case 't': builder.append('\t'); break;
+                    case 'u':
+                        if (position + 4 > json.length()) {
+                            throw error("Invalid escape");
+                        }
+
+                        try {
+                            builder.append((char) Integer.parseInt(
+                                    json.substring(position, position + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Invalid escape");
+                        }
+
+                        position += 4;
+                        break;
+                    default: builder.append(c); break;
+                }
+
+                start = position;
+            }
+
+            throw error("Unterminated string");
+        }
+
+        /**
+         * Read a numeric value as long.
+         *
+         * @return The numeric value as long.
+         */
+        long readLong() {
+            peek();
+            int start = position;
+            while (position < json.length() && "+-0123456789.eE".indexOf(
+                    json.charAt(position)) >= 0) {
+                position++;
+            }
+
+            try {
+                return (long) Double.parseDouble(json.substring(start, position));
+            } catch (NumberFormatException e) {
+                throw error("Invalid number");
+            }
+        }
+
+        /**
+         * Read a boolean value.
+         *
+         * @return The boolean value.
+         */
+        boolean readBoolean() {
+            peek();
+            if (json.startsWith("true", position)) {
+                position += 4;
+                return true;
+            } else if (json.startsWith("false", position)) {
+                position += 5;
+                return false;
+            }
+
+            throw error("Invalid boolean");
+        }
+
+        /**
+         * Skip the next value of any type.
+         */
+        void skipValue() {
+            char c = peek();
+            if (c == '"') {
+                readString();
+            } else if (c == '{' || c == '[') {
+                char end = c == '{' ? '}' : ']';
+                position++;
+                if (consume(end)) {
+                    return;
+                }
+
+                do {
+                    if (c == '{') {
+                        readString();
+                        expect(':');
+                    }
+
+                    skipValue();
+                } while (consume(','));
+                expect(end);
+            } else if (c == 't' || c == 'f') {
+                readBoolean();
+            } else if (json.startsWith("null", position)) {
+                position += 4;
+            } else {
+                readLong();
+            }
+        }
+    }
+}
@@ -0,0 +1,351 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * An immutable class to represent an ISO 8601 billing period as a unit and count.
+ * <p>Compound periods are normalized to their smallest unit, for example {@code P1Y6M}
+ * will be represented as {@code 18} months.
+ *
+ * <p>Use {@link #parse(CharSequence)} or {@link #valueOf(int, int)} to get an instance,
+ * common periods are cached and returned without any allocation.
+ */
+public final class BillingPeriod {
+
+    /**
+     * Interface to hold the period unit constants.
+     */
+    public @interface Unit {
+
+        /**
+         * Constant for the hourly unit.
+         */
+        int HOUR = 0;
+
+        /**
+         * Constant for the daily unit.
+         */
+        int DAY = 1;
+
+        /**
+         * Constant for the weekly unit.
+         */
+        int WEEK = 2;
+
+        /**
+         * Constant for the monthly unit.
+         */
+        int MONTH = 3;
+
+        /**
+         * Constant for the yearly unit.
+         */
+        int YEAR = 4;
+    }
+
+    /**
+     * Approximate duration of one hour in milliseconds.
+     */
+    public static final long MILLIS_HOUR = 3600000L;
+
+    /**
+     * Approximate duration of one day in milliseconds.
+     */
+    public static final long MILLIS_DAY = 24 * MILLIS_HOUR;
+
+    /**
+     * Approximate duration of one week in milliseconds.
+     */
+    public static final long MILLIS_WEEK = 7 * MILLIS_DAY;
+
+    /**
+     * Approximate duration of one year in milliseconds based on the Gregorian calendar.
+     */
+    public static final long MILLIS_YEAR = 31556952000L;
+
+    /**
+     * Approximate duration of one month in milliseconds based on the Gregorian calendar.
+     */
+    public static final long MILLIS_MONTH = MILLIS_YEAR / 12;
+
+    /**
+     * Number of cached periods for each unit.
+     */
+    private static final int CACHE_SIZE = 32;
+
+    /**
+     * Cached periods for each unit and count.
+     */
+    private static final BillingPeriod[][] CACHE = new BillingPeriod[Unit.YEAR + 1][CACHE_SIZE];
+
+    static {
+        for (int unit = Unit.HOUR; unit <= Unit.YEAR; unit++) {
+            for (int count = 0; count < CACHE_SIZE; count++) {
+                CACHE[unit][count] = new BillingPeriod(unit, count);
+            }
+        }
+    }
+
+    /**
+     * Unit of this period.
+     */
+    private final @Unit int unit;
+
+    /**
+     * Count of the units in this period.
+     */
+    private final int count;
+
+    /**
+     * Constructor to initialize an object of this class.
+     *
+     * @param unit The unit for this period.
+     * @param count The count of units for this period.
+     */
+    private BillingPeriod(@Unit int unit, int count) {
+        this.unit = unit;
+        this.count = count;
+    }
+
+    /**
+     * Returns the period for the supplied unit and count.
+     *
+     * @param unit The unit for the period.
+     * @param count The count of units for the period.
+     *
+     * @return The period for the supplied unit and count.
+     */
+    public static @NonNull BillingPeriod valueOf(@Unit int unit, int count) {
+        if (unit < Unit.HOUR || unit > Unit.YEAR) {
+            throw new IllegalArgumentException("Unknown period unit: " + unit);
+        }
+
+        if (count >= 0 && count < CACHE_SIZE) {
+            return CACHE[unit][count];
+        }
+
+        return new BillingPeriod(unit, count);
+    }
+
+    /**
+     * Parse the supplied ISO 8601 period in a single pass.
+     * <p>Minutes and seconds are rounded up to hours as the billing periods
+     * are never shorter than that.
+     *
+     * @param period The ISO 8601 formatted period to be parsed.
+     *
+     * @return The parsed period, otherwise {@code null} if it cannot be parsed.
+     */
+    public static @Nullable BillingPeriod parse(@Nullable CharSequence period) {
+        if (period == null || period.length() < 3 || period.charAt(0) != 'P') {
+            return null;
+        }
+
+        long years = 0, months = 0, weeks = 0, days = 0, hours = 0, seconds = 0;
+        long number = -1;
+        boolean time = false;
+        int smallest = -1;
+
+        for (int i = 1; i < period.length(); i++) {
+            char c = period.charAt(i);
+
+            if (c >= '0' && c <= '9') {
+                number = (number < 0 ? 0 : number * 10) + (c - '0');
+                if (number > Integer.MAX_VALUE) {
+                    return null;
+                }
+
+                continue;
+            }
+
+            if (c == 'T') {
+                if (time || number >= 0) {
+                    return null;
+                }
+
+                time = true;
+                continue;
+            }
+
+            if (number < 0) {
+                return null;
+            }
+
+            int unit;
+            if (time) {
+                switch (c) {
+                    case 'H':
+                        hours += number;
+                        unit = Unit.HOUR;
+                        break;
+                    case 'M':
+                        seconds += number * 60;
+                        unit = Unit.HOUR;
+                        break;
+                    case 'S':
+                        seconds += number;
+                        unit = Unit.HOUR;
+                        break;
+                    default:
+                        return null;
+                }
+            } else {
+                switch (c) {
+                    case 'Y':
+                        years += number;
+                        unit = Unit.YEAR;
+                        break;
+                    case 'M':
+                        months += number;
+                        unit = Unit.MONTH;
+                        break;
+                    case 'W':
+                        weeks += number;
+                        unit = Unit.WEEK;
+                        break;
+                    case 'D':
+                        days += number;
+                        unit = Unit.DAY;
+                        break;
+                    default:
+                        return null;
+                }
+            }
+
+            if (smallest == -1 || unit < smallest) {
+                smallest = unit;
+            }
+
+            number = -1;
+        }
+
+        if (smallest == -1 || number >= 0) {
+            return null;
+        }
+
+        long count;
+        hours += (seconds + 3599) / 3600;
+        switch (smallest) {
+            case Unit.YEAR:
+                count = years;
+                break;
+            case Unit.MONTH:
+                count = years * 12 + months;
+                break;
+            case Unit.WEEK:
+                count = weeks + (years * MILLIS_YEAR + months * MILLIS_MONTH) / MILLIS_WEEK;
+                break;
+            case Unit.DAY:
+                count = weeks * 7 + days
+                        + (years * MILLIS_YEAR + months * MILLIS_MONTH) / MILLIS_DAY;
+                break;
+            default:
+                count = (weeks * 7 + days) * 24 + hours
+                        + (years * MILLIS_YEAR + months * MILLIS_MONTH) / MILLIS_HOUR;
+                break;
+        }
+
+        return count <= Integer.MAX_VALUE ? valueOf(smallest, (int) count) : null;
+    }
+
+    /**
+     * Returns the unit of this period.
+     *
+     * @return The unit of this period.
+     */
+    public @Unit int getUnit() {
+        return unit;
+    }
+
+    /**
+     * Returns the count of units in this period.
+     *
+     * @return The count of units in this period.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the approximate duration of one unit of this period in milliseconds.
+     *
+     * @return The approximate duration of one unit of this period in milliseconds.
+     */
+    public long getUnitMillis() {
+        switch (unit) {
+            case Unit.HOUR:
+                return MILLIS_HOUR;
+            case Unit.DAY:
+                return MILLIS_DAY;
+            case Unit.WEEK:
+                return MILLIS_WEEK;
+            case Unit.MONTH:
+                return MILLIS_MONTH;
+            case Unit.YEAR:
+            default:
+                return MILLIS_YEAR;
+        }
+    }
+
+    /**
+     * Returns the approximate duration of this period in milliseconds.
+     *
+     * @return The approximate duration of this period in milliseconds.
+     */
+    public long getMillis() {
+        return count * getUnitMillis();
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (!(obj instanceof BillingPeriod)) {
+            return false;
+        }
+
+        BillingPeriod period = (BillingPeriod) obj;
+        return unit == period.unit && count == period.count;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * unit + count;
+    }
+
+    @Override
+    public @NonNull String toString() {
+        switch (unit) {
+            case Unit.HOUR:
+                return "PT" + count + "H";
+            case Unit.DAY:
+                return "P" + count + "D";
+            case Unit.WEEK:
+                return "P" + count + "W";
+            case Unit.MONTH:
+                return "P" + count + "M";
+            case Unit.YEAR:
+            default:
+                return "P" + count + "Y";
+        }
+    }
+}
@@ -0,0 +1,654 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact binary codec for the product and feature graph.
+ * <p>Strings are written once in a table and the products, features and their links are
+ * written as indexes, so the shared products and features keep their identity after the
+ * round trip without writing any class name.
+ *
+ * <p>It does not depend on the Android framework, so the same format can be used in the
+ * intent extras and measured on a plain JVM.
+ *
+ * @see Writer
+ * @see Reader
+ */
+public final class DynamicCatalogCodec {
+
+    /**
+     * Magic number to identify the encoded catalog.
+     */
+    private static final int MAGIC = 0x44424331;
+
+    /**
+     * Making default constructor private so that it cannot be initialized.
+     */
+    private DynamicCatalogCodec() { }
+
+    /**
+     * A writer to encode the product and feature graph.
+     */
+    public static final class Writer {
+
+        /**
+         * Map to hold the string indexes mapped with the string.
+         */
+        private final Map<String, Integer> strings = new LinkedHashMap<>();
+
+        /**
+         * Products encoded as the id, type and subscriptions.
+         */
+        private final List<int[]> products = new ArrayList<>();
+
+        /**
+         * Feature indexes linked with each product.
+         */
+        private final List<List<Integer>> productFeatures = new ArrayList<>();
+
+        /**
+         * Features encoded as the id, icon, title, subtitle and enabled.
+         */
+        private final List<int[]> features = new ArrayList<>();
+
+        /**
+         * Product indexes linked with each feature.
+         */
+        private final List<List<Integer>> featureProducts = new ArrayList<>();
+
+        /**
+         * Lists of the product indexes mapped with their key index.
+         */
+        private final Map<Integer, int[]> lists = new LinkedHashMap<>();
+
+        /**
+         * Returns the index for the supplied string.
+         *
+         * @param string The string to be indexed.
+         *
+         * @return The index for the supplied string, {@code 0} for {@code null}.
+         */
+        private int string(@Nullable String string) {
+            if (string == null) {
+                return 0;
+            }
+
+            Integer index = strings.get(string);
+            if (index == null) {
+                index = strings.size() + 1;
+                strings.put(string, index);
+            }
+
+            return index;
+        }
+
+        /**
+         * Add a product to this catalog.
+         *
+         * @param id The id of the product.
+         * @param type The type of the product.
+         * @param subscriptions {@code false} to disable subscriptions along with the product.
+         *
+         * @return The index of the added product.
+         */
+        public int addProduct(@NonNull String id, @Nullable String type, boolean subscriptions) {
+            products.add(new int[] { string(id), string(type), subscriptions ? 1 : 0 });
+            productFeatures.add(new ArrayList<Integer>());
+
+            return products.size() - 1;
+        }
+
+        /**
+         * Add a feature to this catalog.
+         *
+         * @param id The id of the feature.
+         * @param icon The icon resource of the feature.
+         * @param title The title resource of the feature.
+         * @param subtitle The subtitle resource of the feature.
+         * @param enabled {@code true} if the feature is enabled.
+         *
+         * @return The index of the added feature.
+         */
+        public int addFeature(@NonNull String id, int icon,
+                int title, int subtitle, boolean enabled) {
+            features.add(new int[] { string(id), icon, title, subtitle, enabled ? 1 : 0 });
+            featureProducts.add(new ArrayList<Integer>());
+
+            return features.size() - 1;
+        }
+
+        /**
+         * Link a feature with a product in the order of the product features.
+         *
+         * @param product The index of the product.
+         * @param feature The index of the feature.
+         */
+        public void addProductFeature(int product, int feature) {
+            productFeatures.get(product).add(feature);
+        }
+
+        /**
+         * Link a product with a feature in the order of the feature products.
+         *
+         * @param feature The index of the feature.
+         * @param product The index of the product.
+         */
+        public void addFeatureProduct(int feature, int product) {
+            featureProducts.get(feature).add(product);
+        }
+
+        /**
+         * Put a list of the products for the supplied key.
+         *
+         * @param key The key for the list.
+         * @param products The indexes of the products, {@code null} to write a null list.
+         */
+        public void putList(@NonNull String key, @Nullable int[] products) {
+            lists.put(string(key), products);
+        }
+
+        /**
+         * Encode this catalog.
+         *
+         * @return The encoded catalog.
+         */
+        public @NonNull byte[] toByteArray() {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+                    64 + strings.size() * 16 + (products.size() + features.size()) * 8);
+            DataOutputStream out = new DataOutputStream(bytes);
+
+            try {
+                out.writeInt(MAGIC);
+                writeVarInt(out, strings.size());
+                for (String string : strings.keySet()) {
+                    out.writeUTF(string);
+                }
+
+                writeVarInt(out, products.size());
+                for (int i = 0; i < products.size(); i++) {
+                    int[] product = products.get(i);
+                    writeVarInt(out, product[0]);
+                    writeVarInt(out, product[1]);
+                    out.writeByte(product[2]);
+                    writeIndexes(out, productFeatures.get(i));
+                }
+
+                writeVarInt(out, features.size());
+                for (int i = 0; i < features.size(); i++) {
+                    int[] feature = features.get(i);
+                    writeVarInt(out, feature[0]);
+                    out.writeInt(feature[1]);
+                    out.writeInt(feature[2]);
+                    out.writeInt(feature[3]);
+                    out.writeByte(feature[4]);
+                    writeIndexes(out, featureProducts.get(i));
+                }
+
+                writeVarInt(out, lists.size());
+                for (Map.Entry<Integer, int[]> entry : lists.entrySet()) {
+                    writeVarInt(out, entry.getKey());
+                    if (entry.getValue() == null) {
+                        writeVarInt(out, 0);
+                    } else {
+                        writeVarInt(out, entry.getValue().length + 1);
+                        for (int product : entry.getValue()) {
+                            writeVarInt(out, product);
+                        }
+                    }
+                }
+
+                out.flush();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+
+            return bytes.toByteArray();
+        }
+
+        /**
+         * Write the supplied indexes prefixed with their count.
+         *
+         * @param out The output to write the indexes.
+         * @param indexes The indexes to be written.
+         *
+         * @throws IOException If the indexes cannot be written.
+         */
+        private static void writeIndexes(@NonNull DataOutputStream out,
+                @NonNull List<Integer> indexes) throws IOException {
+            writeVarInt(out, indexes.size());
+            for (int index : indexes) {
+                writeVarInt(out, index);
+            }
+        }
+
+        /**
+         * Write an unsigned variable length integer.
+         *
+         * @param out The output to write the integer.
+         * @param value The non-negative integer to be written.
+         *
+         * @throws IOException If the integer cannot be written.
+         */
+        private static void writeVarInt(@NonNull DataOutputStream out, int value)
+                throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+
+            out.writeByte(value);
+        }
+    }
+
+    /**
+     * A reader to decode the product and feature graph.
+     */
+    public static final class Reader {
+
+        /**
+         * String table of the catalog, the first entry is {@code null}.
+         */
+        private final String[] strings;
+
+        /**
+         * Products decoded as the id, type and subscriptions.
+         */
+        private final int[][] products;
+
+        /**
+         * Feature indexes linked with each product.
+         */
+        private final int[][] productFeatures;
+
+        /**
+         * Features decoded as the id, icon, title, subtitle and enabled.
+         */
+        private final int[][] features;
+
+        /**
+         * Product indexes linked with each feature.
+         */
+        private final int[][] featureProducts;
+
+        /**
+         * Lists of the product indexes mapped with their key.
+         */
+        private final Map<String, int[]> lists;
+
+        /**
+         * Decode the supplied catalog.
+         * <p>All the counts and indexes are validated while decoding, so that the accessors
+         * never fail for the decoded products and features.
+         *
+         * @param data The encoded catalog.
+         *
+         * @throws IllegalArgumentException If the supplied data is not a valid catalog.
+         */
+        public Reader(@NonNull byte[] data) {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+
+            try {
+                if (in.readInt() != MAGIC) {
+                    throw new IllegalArgumentException("Invalid catalog");
+                }
+
+                strings = new String[readCount(in) + 1];
+                for (int i = 1; i < strings.length; i++) {
+                    strings[i] = in.readUTF();
+                }
+
+                products = new int[readCount(in)][];
+                productFeatures = new int[products.length][];
+                for (int i = 0; i < products.length; i++) {
+                    products[i] = new int[] { readString(in, false),
+                            readString(in, true), in.readByte() };
+                    productFeatures[i] = readIndexes(in, Integer.MAX_VALUE);
+                }
+
+                features = new int[readCount(in)][];
+                featureProducts = new int[features.length][];
+                for (int i = 0; i < features.length; i++) {
+                    features[i] = new int[] { readString(in, false),
+                            in.readInt(), in.readInt(), in.readInt(), in.readByte() };
+                    featureProducts[i] = readIndexes(in, products.length);
+                }
+
+                for (int[] indexes : productFeatures) {
+                    for (int index : indexes) {
+                        if (index >= features.length) {
+                            throw new IOException("Invalid feature index");
+                        }
+                    }
+                }
+
+                int count = readCount(in);
+                lists = new HashMap<>(count * 2);
+                for (int i = 0; i < count; i++) {
+                    String key = strings[readString(in, false)];
+                    int size = readVarInt(in) - 1;
+                    lists.put(key, size >= 0 ? readIndexes(in, size, products.length) : null);
+                }
+            } catch (IOException | RuntimeException e) {
+                throw new IllegalArgumentException("Invalid catalog", e);
+            }
+        }
+
+        /**
+         * Read a string index and validate it.
+         *
+         * @param in The input to read the index.
+         * @param nullable {@code true} if the index can refer to a {@code null} string.
+         *
+         * @return The string index.
+         *
+         * @throws IOException If the index cannot be read or is out of range.
+         */
+        private int readString(@NonNull DataInputStream in, boolean nullable)
+                throws IOException {
+            int index = readVarInt(in);
+            if (index < (nullable ? 0 : 1) || index >= strings.length) {
+                throw new IOException("Invalid string index");
+            }
+
+            return index;
+        }
+
+        /**
+         * Read a count and validate it against the remaining input.
+         *
+         * @param in The input to read the count.
+         *
+         * @return The count read from the input.
+         *
+         * @throws IOException If the count cannot be read or exceeds the remaining input.
+         */
+        private static int readCount(@NonNull DataInputStream in) throws IOException {
+            int count = readVarInt(in);
+            if (count < 0 || count > in.available()) {
+                throw new IOException("Invalid count");
+            }
+
+            return count;
+        }
+
+        /**
+         * Read the indexes prefixed with their count and validate them.
+         *
+         * @param in The input to read the indexes.
+         * @param bound The exclusive upper bound for the indexes.
+         *
+         * @return The indexes read from the input.
+         *
+         * @throws IOException If the indexes cannot be read or are out of range.
+         */
+        private static @NonNull int[] readIndexes(@NonNull DataInputStream in, int bound)
+                throws IOException {
+            return readIndexes(in, readCount(in), bound);
+        }
+
+        /**
+         * Read the supplied number of indexes and validate them.
+         *
+         * @param in The input to read the indexes.
+         * @param count The number of indexes to be read.
+         * @param bound The exclusive upper bound for the indexes.
+         *
+         * @return The indexes read from the input.
+         *
+         * @throws IOException If the indexes cannot be read or are out of range.
+         */
+        private static @NonNull int[] readIndexes(@NonNull DataInputStream in,
+                int count, int bound) throws IOException {
+            if (count > in.available()) {
+                throw new IOException("Invalid count");
+            }
+
+            int[] indexes = new int[count];
+            for (int i = 0; i < indexes.length; i++) {
+                indexes[i] = readVarInt(in);
+                if (indexes[i] < 0 || indexes[i] >= bound) {
+                    throw new IOException("Invalid index");
+                }
+            }
+
+            return indexes;
+        }
+
+        /**
+         * Read an unsigned variable length integer.
+         *
+         * @param in The input to read the integer.
+         *
+         * @return The integer read from the input.
+         *
+         * @throws IOException If the integer cannot be read.
+         */
+        private static int readVarInt(@NonNull DataInputStream in) throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = in.readUnsignedByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+
+            throw new IOException("Invalid integer");
+        }
+
+        /**
+         * Returns the decoded product for the supplied index.
+         *
+         * @param product The index of the product.
+         *
+         * @return The decoded product for the supplied index.
+         *
+         * @throws IllegalArgumentException If the supplied index is out of range.
+         */
+        private @NonNull int[] getProduct(int product) {
+            if (product < 0 || product >= products.length) {
+                throw new IllegalArgumentException("Invalid product index: " + product);
+            }
+
+            return products[product];
+        }
+
+        /**
+         * Returns the decoded feature for the supplied index.
+         *
+         * @param feature The index of the feature.
+         *
+         * @return The decoded feature for the supplied index.
+         *
+         * @throws IllegalArgumentException If the supplied index is out of range.
+         */
+        private @NonNull int[] getFeature(int feature) {
+            if (feature < 0 || feature >= features.length) {
+                throw new IllegalArgumentException("Invalid feature index: " + feature);
+            }
+
+            return features[feature];
+        }
+
+        /**
+         * Returns the number of products in this catalog.
+         *
+         * @return The number of products in this catalog.
+         */
+        public int getProductCount() {
+            return products.length;
+        }
+
+        /**
+         * Returns the id of the supplied product.
+         *
+         * @param product The index of the product.
+         *
+         * @return The id of the supplied product.
+         */
+        public @NonNull String getProductId(int product) {
+            return strings[getProduct(product)[0]];
+        }
+
+        /**
+         * Returns the type of the supplied product.
+         *
+         * @param product The index of the product.
+         *
+         * @return The type of the supplied product.
+         */
+        public @Nullable String getProductType(int product) {
+            return strings[getProduct(product)[1]];
+        }
+
+        /**
+         * Returns whether the subscriptions are enabled along with the supplied product.
+         *
+         * @param product The index of the product.
+         *
+         * @return {@code true} if the subscriptions are enabled along with the product.
+         */
+        public boolean isSubscriptions(int product) {
+            return getProduct(product)[2] != 0;
+        }
+
+        /**
+         * Returns the features linked with the supplied product.
+         *
+         * @param product The index of the product.
+         *
+         * @return The indexes of the features linked with the supplied product.
+         */
+        public @NonNull int[] getProductFeatures(int product) {
+            getProduct(product);
+            return productFeatures[product].clone();
+        }
+
+        /**
+         * Returns the number of features in this catalog.
+         *
+         * @return The number of features in this catalog.
+         */
+        public int getFeatureCount() {
+            return features.length;
+        }
+
+        /**
+         * Returns the id of the supplied feature.
+         *
+         * @param feature The index of the feature.
+         *
+         * @return The id of the supplied feature.
+         */
+        public @NonNull String getFeatureId(int feature) {
+            return strings[getFeature(feature)[0]];
+        }
+
+        /**
+         * Returns the icon resource of the supplied feature.
+         *
+         * @param feature The index of the feature.
+         *
+         * @return The icon resource of the supplied feature.
+         */
+        public int getFeatureIcon(int feature) {
+            return getFeature(feature)[1];
+        }
+
+        /**
+         * Returns the title resource of the supplied feature.
+         *
+         * @param feature The index of the feature.
+         *
+         * @return The title resource of the supplied feature.
+         */
+        public int getFeatureTitle(int feature) {
+            return getFeature(feature)[2];
+        }
+
+        /**
+         * Returns the subtitle resource of the supplied feature.
+         *
+         * @param feature The index of the feature.
+         *
+         * @return The subtitle resource of the supplied feature.
+         */
+        public int getFeatureSubtitle(int feature) {
+            return getFeature(feature)[3];
+        }
+
+        /**
+         * Returns whether the supplied feature is enabled.
+         *
+         * @param feature The index of the feature.
+         *
+         * @return {@code true} if the supplied feature is enabled.
+         */
+        public boolean isFeatureEnabled(int feature) {
+            return getFeature(feature)[4] != 0;
+        }
+
+        /**
+         * Returns the products linked with the supplied feature.
+         *
+         * @param feature The index of the feature.
+         *
+         * @return The indexes of the products linked with the supplied feature.
+         */
+        public @NonNull int[] getFeatureProducts(int feature) {
+            getFeature(feature);
+            return featureProducts[feature].clone();
+        }
+
+        /**
+         * Returns whether this catalog has a list for the supplied key.
+         *
+         * @param key The key for the list.
+         *
+         * @return {@code true} if this catalog has a list for the supplied key.
+         */
+        public boolean hasList(@Nullable String key) {
+            return lists.containsKey(key);
+        }
+
+        /**
+         * Returns the list of the products for the supplied key.
+         *
+         * @param key The key for the list.
+         *
+         * @return The indexes of the products for the supplied key, otherwise {@code null}.
+         */
+        public @Nullable int[] getList(@Nullable String key) {
+            int[] list = lists.get(key);
+            return list != null ? list.clone() : null;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size ring buffer to journal the recent billing events for the diagnostics.
+ * <p>Events are written lock-free into the preallocated slots without any allocation,
+ * so it can be always on. Each slot is stamped with its sequence before and after the
+ * write, so that a torn entry is skipped while dumping.
+ *
+ * <p>Writers lapping the same slot at the same time may overwrite each other, it is
+ * acceptable for the diagnostics as only the recent events are required.
+ *
+ * @see #dump()
+ */
+public class DynamicBillingJournal {
+
+    /**
+     * Default number of events to be kept.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * Constant value for the unknown response code.
+     */
+    public static final int UNKNOWN = -1;
+
+    /**
+     * Event for the billing setup finished.
+     */
+    public static final int EVENT_SETUP_FINISHED = 0;
+
+    /**
+     * Event for the billing service disconnected.
+     */
+    public static final int EVENT_DISCONNECTED = 1;
+
+    /**
+     * Event for the purchases updated.
+     */
+    public static final int EVENT_PURCHASES_UPDATED = 2;
+
+    /**
+     * Event for the product details response.
+     */
+    public static final int EVENT_PRODUCT_DETAILS = 3;
+
+    /**
+     * Event for the query purchases response.
+     */
+    public static final int EVENT_QUERY_PURCHASES = 4;
+
+    /**
+     * Event for the consume response.
+     */
+    public static final int EVENT_CONSUME = 5;
+
+    /**
+     * Event for the acknowledge purchase response.
+     */
+    public static final int EVENT_ACKNOWLEDGE = 6;
+
+    /**
+     * Event for the billing flow launched.
+     */
+    public static final int EVENT_LAUNCH_BILLING_FLOW = 7;
+
+    /**
+     * Event for the entitlements expired.
+     */
+    public static final int EVENT_EXPIRED = 8;
+
+    /**
+     * Names of the events to dump the journal.
+     */
+    private static final String[] EVENT_NAMES = { "setup_finished", "disconnected",
+            "purchases_updated", "product_details", "query_purchases", "consume",
+            "acknowledge", "launch_billing_flow", "expired" };
+
+    /**
+     * Number of fields in a slot.
+     */
+    private static final int FIELDS = 5;
+
+    /**
+     * Index of the sequence stamp in a slot.
+     */
+    private static final int STAMP = 0;
+
+    /**
+     * Index of the timestamp in a slot.
+     */
+    private static final int TIME = 1;
+
+    /**
+     * Index of the dispatch delay in a slot.
+     */
+    private static final int DELAY = 2;
+
+    /**
+     * Index of the event type and response code in a slot.
+     */
+    private static final int EVENT = 3;
+
+    /**
+     * Index of the products hash and listener count in a slot.
+     */
+    private static final int EXTRA = 4;
+
+    /**
+     * Mask to get the slot for a sequence.
+     */
+    private final int mMask;
+
+    /**
+     * Preallocated slots to hold the events.
+     */
+    private final AtomicLongArray mSlots;
+
+    /**
+     * Sequence of the next event.
+     */
+    private final AtomicLong mSequence;
+
+    /**
+     * Constructor to initialize an object of this class.
+     */
+    public DynamicBillingJournal() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor to initialize an object of this class.
+     *
+     * @param capacity The number of events to be kept, it will be rounded up to the next
+     *                 power of two.
+     */
+    public DynamicBillingJournal(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+
+        this.mMask = size - 1;
+        this.mSlots = new AtomicLongArray(size * FIELDS);
+        this.mSequence = new AtomicLong();
+    }
+
+    /**
+     * Returns an order dependent hash for the supplied product ids without any allocation.
+     *
+     * @param productIds The product ids to be used.
+     *
+     * @return The hash for the supplied product ids.
+     */
+    public static int hash(@Nullable List<String> productIds) {
+        if (productIds == null) {
+            return 0;
+        }
+
+        int hash = 1;
+        for (int i = 0; i < productIds.size(); i++) {
+            String productId = productIds.get(i);
+            hash = 31 * hash + (productId != null ? productId.hashCode() : 0);
+        }
+
+        return hash;
+    }
+
+    /**
+     * Returns the name of the supplied event.
+     *
+     * @param event The event to get the name.
+     *
+     * @return The name of the supplied event.
+     */
+    public static @NonNull String getEventName(int event) {
+        return event >= 0 && event < EVENT_NAMES.length
+                ? EVENT_NAMES[event] : Integer.toString(event);
+    }
+
+    /**
+     * Returns the number of events to be kept.
+     *
+     * @return The number of events to be kept.
+     */
+    public int getCapacity() {
+        return mMask + 1;
+    }
+
+    /**
+     * Returns the total number of events recorded by this journal.
+     *
+     * @return The total number of events recorded by this journal.
+     */
+    public long getCount() {
+        return mSequence.get();
+    }
+
+    /**
+     * Record an event in this journal.
+     *
+     * @param event The type of the event.
+     * @param responseCode The billing response code, otherwise {@link #UNKNOWN}.
+     * @param productsHash The hash of the product ids.
+     * @param delay The delay in milliseconds to dispatch the event.
+     * @param listeners The number of listeners receiving the event.
+     *
+     * @see #hash(List)
+     */
+    public void record(int event, int responseCode,
+            int productsHash, long delay, int listeners) {
+        long sequence = mSequence.getAndIncrement();
+        int slot = (int) (sequence & mMask) * FIELDS;
+
+        mSlots.set(slot + STAMP, -(sequence + 1));
+        mSlots.set(slot + TIME, System.currentTimeMillis());
+        mSlots.set(slot + DELAY, delay);
+        mSlots.set(slot + EVENT, ((long) event << 32) | (responseCode & 0xFFFFFFFFL));
+        mSlots.set(slot + EXTRA, ((long) productsHash << 32) | (listeners & 0xFFFFFFFFL));
+        mSlots.set(slot + STAMP, sequence + 1);
+    }
+
+    /**
+     * Serialize the recent events of this journal to the supplied builder.
+     * <p>Each event is appended on a new line with the sequence, timestamp, event,
+     * response code, products hash, dispatch delay and listener count.
+     *
+     * @param builder The builder to append the events.
+     *
+     * @return The supplied builder to allow for chaining of calls.
+     */
+    public @NonNull StringBuilder dump(@NonNull StringBuilder builder) {
+        long end = mSequence.get();
+        long start = Math.max(0, end - getCapacity());
+
+        builder.append("DynamicBillingJournal{capacity=").append(getCapacity())
+                .append(", events=").append(end).append("}\n")
+                .append("sequence,time,event,response_code,products_hash,delay,listeners\n");
+
+        for (long sequence = start; sequence < end; sequence++) {
+            int slot = (int) (sequence & mMask) * FIELDS;
+            if (mSlots.get(slot + STAMP) != sequence + 1) {
+                continue;
+            }
+
+            long time = mSlots.get(slot + TIME);
+            long delay = mSlots.get(slot + DELAY);
+            long event = mSlots.get(slot + EVENT);
+            long extra = mSlots.get(slot + EXTRA);
+            if (mSlots.get(slot + STAMP) != sequence + 1) {
+                continue;
+            }
+
+            builder.append(sequence).append(',').append(time).append(',')
+                    .append(getEventName((int) (event >> 32))).append(',')
+                    .append((int) event).append(',')
+                    .append(Integer.toHexString((int) (extra >> 32))).append(',')
+                    .append(delay).append(',').append((int) extra).append('\n');
+        }
+
+        return builder;
+    }
+
+    /**
+     * Serialize the recent events of this journal to be attached with a bug report.
+     *
+     * @return The serialized events of this journal.
+     *
+     * @see #dump(StringBuilder)
+     */
+    public @NonNull String dump() {
+        return dump(new StringBuilder()).toString();
+    }
+
+    @Override
+    public @NonNull String toString() {
+        return "DynamicBillingJournal{capacity=" + getCapacity() + ", events=" + getCount() + "}";
+    }
+}
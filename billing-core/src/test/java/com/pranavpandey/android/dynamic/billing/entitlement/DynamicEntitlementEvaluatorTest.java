@@ -0,0 +1,95 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.entitlement;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the {@link DynamicEntitlementEvaluator}.
+ */
+public class DynamicEntitlementEvaluatorTest {
+
+    @Test
+    public void evaluateJson() {
+        DynamicEntitlementEvaluator evaluator = new DynamicEntitlementEvaluator()
+                .registerFeature("ads", Arrays.asList("premium", "lifetime"))
+                .registerFeature("themes", Collections.singletonList("lifetime"));
+
+        DynamicEntitlementSnapshot snapshot = evaluator.evaluateJson(3, Arrays.asList(
+                "{\"productIds\":[\"premium\"],\"purchaseState\":0}",
+                "{\"productIds\":[\"lifetime\"],\"purchaseState\":4}"));
+
+        assertEquals(3, snapshot.getVersion());
+        assertTrue(snapshot.isEnabled("ads"));
+        assertFalse(snapshot.isEnabled("themes"));
+        assertTrue(snapshot.isPurchased("premium"));
+        assertFalse(snapshot.isPurchased("lifetime"));
+        assertFalse(snapshot.isEnabled("unknown"));
+    }
+
+    @Test
+    public void replaceFeature() {
+        DynamicEntitlementEvaluator evaluator = new DynamicEntitlementEvaluator()
+                .registerFeature("ads", Collections.singletonList("premium"));
+        evaluator.registerFeature("ads", Collections.singletonList("lifetime"));
+
+        assertFalse(evaluator.evaluateJson(1, Collections.singletonList(
+                "{\"productId\":\"premium\"}")).isEnabled("ads"));
+        assertTrue(evaluator.evaluateJson(2, Collections.singletonList(
+                "{\"productId\":\"lifetime\"}")).isEnabled("ads"));
+    }
+
+    @Test
+    public void evaluateManyProducts() {
+        DynamicEntitlementEvaluator evaluator = new DynamicEntitlementEvaluator();
+        for (int i = 0; i < 200; i++) {
+            evaluator.registerFeature("feature_" + i, Arrays.asList(
+                    "product_" + i, "product_" + (i + 100)));
+        }
+
+        List<DynamicPurchaseRecord> purchases = new ArrayList<>();
+        purchases.add(new DynamicPurchaseRecord(Collections.singletonList("product_150"),
+                null, 0, DynamicPurchaseRecord.STATE_PURCHASED, false));
+
+        DynamicEntitlementSnapshot snapshot = evaluator.evaluate(1, purchases);
+        assertTrue(snapshot.isEnabled("feature_50"));
+        assertTrue(snapshot.isEnabled("feature_150"));
+        assertFalse(snapshot.isEnabled("feature_149"));
+    }
+
+    @Test
+    public void snapshotFactoryCopiesBitsets() {
+        long[] purchased = new long[] { 1 };
+        DynamicEntitlementSnapshot snapshot = DynamicEntitlementSnapshot.of(1,
+                Collections.singletonMap("premium", 0), Collections.singletonMap("ads", 0),
+                purchased, new long[] { 1 });
+        purchased[0] = 0;
+
+        assertTrue(snapshot.isPurchased("premium"));
+        assertTrue(snapshot.isEnabled("ads"));
+        assertTrue(snapshot.isAnyEnabled());
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.entitlement;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the {@link DynamicPurchaseRecord} parser.
+ */
+public class DynamicPurchaseRecordTest {
+
+    @Test
+    public void parsePurchase() {
+        DynamicPurchaseRecord record = DynamicPurchaseRecord.parse("{"
+                + "\"orderId\":\"GPA.1234\",\"packageName\":\"com.example\","
+                + "\"productIds\":[\"premium\",\"lifetime\"],\"purchaseTime\":1700000000000,"
+                + "\"purchaseState\":0,\"purchaseToken\":\"token\",\"quantity\":1,"
+                + "\"autoRenewing\":true,\"acknowledged\":false}");
+
+        assertEquals(Arrays.asList("premium", "lifetime"), record.getProductIds());
+        assertEquals("token", record.getPurchaseToken());
+        assertEquals(1700000000000L, record.getPurchaseTime());
+        assertEquals(DynamicPurchaseRecord.STATE_PURCHASED, record.getPurchaseState());
+        assertTrue(record.isPurchased());
+        assertTrue(record.isAutoRenewing());
+    }
+
+    @Test
+    public void parsePendingPurchase() {
+        DynamicPurchaseRecord record = DynamicPurchaseRecord.parse(
+                "{\"productId\":\"premium\",\"purchaseState\":4}");
+
+        assertEquals(DynamicPurchaseRecord.STATE_PENDING, record.getPurchaseState());
+        assertFalse(record.isPurchased());
+    }
+
+    @Test
+    public void parseLegacyProductId() {
+        assertEquals(Collections.singletonList("premium"), DynamicPurchaseRecord.parse(
+                "{\"productId\":\"premium\"}").getProductIds());
+        assertEquals(Collections.singletonList("monthly"), DynamicPurchaseRecord.parse(
+                "{\"productId\":\"premium\",\"productIds\":[\"monthly\"]}").getProductIds());
+    }
+
+    @Test
+    public void parseEscapesAndWhitespace() {
+        DynamicPurchaseRecord record = DynamicPurchaseRecord.parse(" {\n"
+                + "  \"developerPayload\" : \"{\\\"a\\\":[1, 2]}\",\n"
+                + "  \"obfuscatedAccountId\" : null,\n"
+                + "  \"nested\" : {\"list\" : [true, false, {\"b\" : -1.5e3}], \"empty\" : {}},\n"
+                + "  \"productIds\" : [ \"pre\\u006dium\", \"a\\\\b\\\"c\" ]\n"
+                + "}");
+
+        assertEquals(Arrays.asList("premium", "a\\b\"c"), record.getProductIds());
+        assertNull(record.getPurchaseToken());
+        assertFalse(record.isAutoRenewing());
+    }
+
+    @Test
+    public void parseEmptyPurchase() {
+        DynamicPurchaseRecord record = DynamicPurchaseRecord.parse("{}");
+
+        assertTrue(record.getProductIds().isEmpty());
+        assertTrue(record.isPurchased());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseUnterminatedString() {
+        DynamicPurchaseRecord.parse("{\"productId\":\"premium}");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseMissingBrace() {
+        DynamicPurchaseRecord.parse("{\"productId\":\"premium\"");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseInvalidEscape() {
+        DynamicPurchaseRecord.parse("{\"productId\":\"\\u00g1\"}");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseInvalidBoolean() {
+        DynamicPurchaseRecord.parse("{\"autoRenewing\":yes}");
+    }
+}
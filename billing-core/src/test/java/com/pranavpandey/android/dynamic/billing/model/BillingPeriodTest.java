@@ -0,0 +1,92 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests for the {@link BillingPeriod} parser.
+ */
+public class BillingPeriodTest {
+
+    @Test
+    public void parseSingleUnit() {
+        assertSame(BillingPeriod.valueOf(BillingPeriod.Unit.YEAR, 1),
+                BillingPeriod.parse("P1Y"));
+        assertSame(BillingPeriod.valueOf(BillingPeriod.Unit.MONTH, 3),
+                BillingPeriod.parse("P3M"));
+        assertSame(BillingPeriod.valueOf(BillingPeriod.Unit.WEEK, 1),
+                BillingPeriod.parse("P1W"));
+        assertSame(BillingPeriod.valueOf(BillingPeriod.Unit.DAY, 30),
+                BillingPeriod.parse("P30D"));
+        assertSame(BillingPeriod.valueOf(BillingPeriod.Unit.HOUR, 12),
+                BillingPeriod.parse("PT12H"));
+    }
+
+    @Test
+    public void parseMixedUnits() {
+        assertEquals(BillingPeriod.valueOf(BillingPeriod.Unit.MONTH, 18),
+                BillingPeriod.parse("P1Y6M"));
+        assertEquals(BillingPeriod.valueOf(BillingPeriod.Unit.DAY, 17),
+                BillingPeriod.parse("P2W3D"));
+        assertEquals(BillingPeriod.valueOf(BillingPeriod.Unit.HOUR, 26),
+                BillingPeriod.parse("P1DT2H"));
+    }
+
+    @Test
+    public void parseRoundsUpMinutesAndSeconds() {
+        assertEquals(BillingPeriod.valueOf(BillingPeriod.Unit.HOUR, 1),
+                BillingPeriod.parse("PT30M"));
+        assertEquals(BillingPeriod.valueOf(BillingPeriod.Unit.HOUR, 2),
+                BillingPeriod.parse("PT1H1S"));
+    }
+
+    @Test
+    public void parseLargeCount() {
+        BillingPeriod period = BillingPeriod.parse("P100Y");
+
+        assertEquals(BillingPeriod.valueOf(BillingPeriod.Unit.YEAR, 100), period);
+        assertEquals(100 * BillingPeriod.MILLIS_YEAR, period.getMillis());
+    }
+
+    @Test
+    public void parseInvalid() {
+        assertNull(BillingPeriod.parse(null));
+        assertNull(BillingPeriod.parse(""));
+        assertNull(BillingPeriod.parse("P"));
+        assertNull(BillingPeriod.parse("1Y"));
+        assertNull(BillingPeriod.parse("PY"));
+        assertNull(BillingPeriod.parse("P1"));
+        assertNull(BillingPeriod.parse("P1X"));
+        assertNull(BillingPeriod.parse("P1H"));
+        assertNull(BillingPeriod.parse("PT1D"));
+        assertNull(BillingPeriod.parse("P1TT1H"));
+        assertNull(BillingPeriod.parse("P99999999999D"));
+    }
+
+    @Test
+    public void formatPeriod() {
+        assertEquals("P1Y", BillingPeriod.valueOf(BillingPeriod.Unit.YEAR, 1).toString());
+        assertEquals("PT6H", BillingPeriod.valueOf(BillingPeriod.Unit.HOUR, 6).toString());
+        assertEquals(BillingPeriod.parse("P2W"),
+                BillingPeriod.parse(BillingPeriod.parse("P2W").toString()));
+    }
+}
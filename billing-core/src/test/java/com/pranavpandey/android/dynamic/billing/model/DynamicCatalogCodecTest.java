@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the {@link DynamicCatalogCodec}.
+ */
+public class DynamicCatalogCodecTest {
+
+    private static byte[] encode() {
+        DynamicCatalogCodec.Writer writer = new DynamicCatalogCodec.Writer();
+        int inApp = writer.addProduct("inapp_pro", "inapp", false);
+        int subs = writer.addProduct("subs_pro", null, true);
+        int feature = writer.addFeature("feature_ads", 1, 2, 3, true);
+        writer.addProductFeature(inApp, feature);
+        writer.addFeatureProduct(feature, inApp);
+        writer.addFeatureProduct(feature, subs);
+        writer.putList("products", new int[] { subs, inApp });
+        writer.putList("disabled", null);
+
+        return writer.toByteArray();
+    }
+
+    @Test
+    public void readWritten() {
+        DynamicCatalogCodec.Reader reader = new DynamicCatalogCodec.Reader(encode());
+
+        assertEquals(2, reader.getProductCount());
+        assertEquals("inapp_pro", reader.getProductId(0));
+        assertNull(reader.getProductType(1));
+        assertTrue(reader.isSubscriptions(1));
+        assertArrayEquals(new int[] { 0 }, reader.getProductFeatures(0));
+        assertEquals(1, reader.getFeatureCount());
+        assertEquals(3, reader.getFeatureSubtitle(0));
+        assertArrayEquals(new int[] { 0, 1 }, reader.getFeatureProducts(0));
+        assertArrayEquals(new int[] { 1, 0 }, reader.getList("products"));
+        assertTrue(reader.hasList("disabled"));
+        assertNull(reader.getList("disabled"));
+    }
+
+    @Test
+    public void rejectTruncated() {
+        byte[] data = encode();
+        for (int length = 0; length < data.length; length++) {
+            try {
+                new DynamicCatalogCodec.Reader(Arrays.copyOf(data, length));
+                fail("Decoded a catalog truncated to " + length + " bytes");
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+    }
+
+    @Test
+    public void rejectCorrupted() {
+        byte[] data = encode();
+        for (int i = 4; i < data.length; i++) {
+            for (int value : new int[] { 0x00, 0x7F, 0xFF }) {
+                byte[] corrupted = data.clone();
+                corrupted[i] = (byte) value;
+
+                try {
+                    DynamicCatalogCodec.Reader reader = new DynamicCatalogCodec.Reader(corrupted);
+                    for (int product = 0; product < reader.getProductCount(); product++) {
+                        reader.getProductId(product);
+                        reader.getProductType(product);
+                        reader.getProductFeatures(product);
+                    }
+
+                    for (int feature = 0; feature < reader.getFeatureCount(); feature++) {
+                        reader.getFeatureId(feature);
+                        reader.getFeatureProducts(feature);
+                    }
+                } catch (IllegalArgumentException ignored) {
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectInvalidIndex() {
+        new DynamicCatalogCodec.Reader(encode()).getProductId(2);
+    }
+}
@@ -19,10 +19,15 @@ package com.pranavpandey.android.dynamic.billing;
 import android.annotation.SuppressLint;
 import android.app.Activity;
 import android.app.Application;
+import android.content.ComponentCallbacks;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
+import android.util.LruCache;
 
+import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
@@ -36,6 +41,7 @@ import com.android.billingclient.api.BillingResult;
 import com.android.billingclient.api.ConsumeParams;
 import com.android.billingclient.api.ConsumeResponseListener;
 import com.android.billingclient.api.PendingPurchasesParams;
+import com.android.billingclient.api.ProductDetails;
 import com.android.billingclient.api.ProductDetailsResponseListener;
 import com.android.billingclient.api.Purchase;
 import com.android.billingclient.api.PurchasesResponseListener;
@@ -43,12 +49,26 @@ import com.android.billingclient.api.PurchasesUpdatedListener;
 import com.android.billingclient.api.QueryProductDetailsParams;
 import com.android.billingclient.api.QueryProductDetailsResult;
 import com.android.billingclient.api.QueryPurchasesParams;
+import com.pranavpandey.android.dynamic.billing.entitlement.DynamicEntitlementRegistry;
+import com.pranavpandey.android.dynamic.billing.entitlement.DynamicEntitlementSnapshot;
+import com.pranavpandey.android.dynamic.billing.entitlement.DynamicExpiryScheduler;
+import com.pranavpandey.android.dynamic.billing.entitlement.DynamicExternalCache;
 import com.pranavpandey.android.dynamic.billing.listener.DynamicBillingListener;
+import com.pranavpandey.android.dynamic.billing.listener.DynamicExternalListener;
+import com.pranavpandey.android.dynamic.billing.model.DynamicInApp;
+import com.pranavpandey.android.dynamic.billing.model.DynamicSubscription;
 import com.pranavpandey.android.dynamic.billing.model.base.DynamicFeature;
+import com.pranavpandey.android.dynamic.billing.model.base.DynamicProduct;
+import com.pranavpandey.android.dynamic.billing.model.factory.External;
+import com.pranavpandey.android.dynamic.billing.scheduler.DynamicRefreshScheduler;
+import com.pranavpandey.android.dynamic.billing.util.DynamicBillingJournal;
+import com.pranavpandey.android.dynamic.billing.util.DynamicBillingUtils;
+import com.pranavpandey.android.dynamic.billing.util.DynamicOfferResolver;
 import com.pranavpandey.android.dynamic.util.DynamicLinkUtils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Helper class to handle the billing related operations including subscriptions.
@@ -68,6 +88,11 @@ public class DynamicBilling {
     public static final String URL_GOOGLE_PLAY_SUB =
             "http://play.google.com/store/account/subscriptions?sku=%1$s&package=%2$s";
 
+    /**
+     * Maximum number of purchase product hashes to be cached.
+     */
+    public static final int CACHE_SIZE_PRODUCTS_HASHES = 32;
+
     /**
      * Singleton instance of {@link DynamicBilling}.
      */
@@ -129,6 +154,66 @@ public class DynamicBilling {
      */
     private final Handler mHandler;
 
+    /**
+     * Scheduler to compute the next useful time to refresh the purchases.
+     */
+    private final DynamicRefreshScheduler mRefreshScheduler;
+
+    /**
+     * Registry to resolve the feature entitlements from the purchases.
+     */
+    private final DynamicEntitlementRegistry mEntitlementRegistry;
+
+    /**
+     * Scheduler to lapse the expiring entitlements like rentals and prepaid plans.
+     */
+    private final DynamicExpiryScheduler mExpiryScheduler;
+
+    /**
+     * Runnable to lapse the expired entitlements when scheduled.
+     */
+    private final Runnable mExpiryRunnable;
+
+    /**
+     * Cache to memoize the active state of the external products.
+     */
+    private DynamicExternalCache mExternalCache;
+
+    /**
+     * Listener to update the entitlements for the checked external products.
+     */
+    private final DynamicExternalListener mExternalListener;
+
+    /**
+     * Latest immutable entitlement snapshot to be read from any thread.
+     */
+    private final AtomicReference<DynamicEntitlementSnapshot> mEntitlementSnapshot;
+
+    /**
+     * Resolver to index the subscription offers by their base plan.
+     */
+    private final DynamicOfferResolver mOfferResolver;
+
+    /**
+     * Journal to record the recent billing events for the diagnostics.
+     */
+    private final DynamicBillingJournal mJournal;
+
+    /**
+     * Cache to hold the hash of the product ids mapped with the original purchase json.
+     */
+    private final LruCache<String, Integer> mProductsHashes;
+
+    /**
+     * Runnable to refresh the purchases when scheduled.
+     */
+    private final Runnable mRefreshRunnable;
+
+    /**
+     * {@code true} to automatically refresh the purchases when required.
+     */
+    private boolean mAutoRefresh;
+
     /**
      * Making default constructor private so that it cannot be initialized without a context.
      * <p>Use {@link #initializeInstance(Context)} instead.
@@ -137,13 +222,72 @@ public class DynamicBilling {
     private DynamicBilling() {
         this.mBillingListeners = new ArrayList<>();
         this.mHandler = new Handler(Looper.getMainLooper());
+        this.mJournal = new DynamicBillingJournal();
+        this.mProductsHashes = new LruCache<>(CACHE_SIZE_PRODUCTS_HASHES);
+        this.mRefreshScheduler = new DynamicRefreshScheduler();
+        this.mOfferResolver = new DynamicOfferResolver();
+        this.mEntitlementRegistry = new DynamicEntitlementRegistry();
+        this.mEntitlementSnapshot = new AtomicReference<>(DynamicEntitlementSnapshot.EMPTY);
+        this.mExpiryScheduler = new DynamicExpiryScheduler();
+        this.mExpiryRunnable = new Runnable() {
+            @Override
+            public void run() {
+                boolean lapsed = false;
+                List<String> expired = getExpiryScheduler().expire(System.currentTimeMillis());
+                for (String productId : expired) {
+                    lapsed |= getEntitlementRegistry().revoke(productId);
+                }
+
+                if (!expired.isEmpty()) {
+                    getJournal().record(DynamicBillingJournal.EVENT_EXPIRED,
+                            DynamicBillingJournal.UNKNOWN, DynamicBillingJournal.hash(expired),
+                            0, getPurchaseListeners().size());
+                }
+
+                if (lapsed) {
+                    publishEntitlements();
+                }
+
+                scheduleExpiry();
+            }
+        };
+        this.mExternalListener = new DynamicExternalListener() {
+            @Override
+            public void onExternalChecked(@NonNull List<External> products,
+                    @NonNull boolean[] active) {
+                for (int i = 0; i < products.size(); i++) {
+                    if (active[i]) {
+                        getEntitlementRegistry().setPurchased(getEntitlementRegistry()
+                                .indexOfProduct(products.get(i).getId()), true);
+                    } else {
+                        getEntitlementRegistry().revoke(products.get(i).getId());
+                    }
+                }
+
+                getEntitlementRegistry().updateFeatures();
+                publishEntitlements();
+            }
+        };
+        this.mRefreshRunnable = new Runnable() {
+            @Override
+            public void run() {
+                refreshPurchases(false);
+            }
+        };
 
         this.mBillingStateListener = new BillingClientStateListener() {
             @Override
             public void onBillingServiceDisconnected() {
+                final long received = SystemClock.uptimeMillis();
                 getHandler().post(new Runnable() {
                     @Override
                     public void run() {
+                        record(DynamicBillingJournal.EVENT_DISCONNECTED,
+                                DynamicBillingJournal.UNKNOWN, 0, received);
+
+                        getRefreshScheduler().onUnavailable(System.currentTimeMillis());
+                        schedulePurchasesRefresh();
+
                         for (BillingClientStateListener listener : getPurchaseListeners()) {
                             listener.onBillingServiceDisconnected();
                         }
@@ -155,7 +299,10 @@ public class DynamicBilling {
             public void onBillingSetupFinished(final @NonNull BillingResult billingResult) {
                 mBillingResult = billingResult;
 
+                final long received = SystemClock.uptimeMillis();
                 if (billingResult.getResponseCode() != BillingClient.BillingResponseCode.OK) {
+                    record(DynamicBillingJournal.EVENT_SETUP_FINISHED,
+                            billingResult.getResponseCode(), 0, received);
                     onBillingServiceDisconnected();
 
                     return;
@@ -164,6 +311,12 @@ public class DynamicBilling {
                 getHandler().post(new Runnable() {
                     @Override
                     public void run() {
+                        record(DynamicBillingJournal.EVENT_SETUP_FINISHED,
+                                billingResult.getResponseCode(), 0, received);
+
+                        getRefreshScheduler().onAvailable();
+                        schedulePurchasesRefresh();
+
                         for (BillingClientStateListener listener : getPurchaseListeners()) {
                             listener.onBillingSetupFinished(billingResult);
                         }
@@ -176,9 +329,26 @@ public class DynamicBilling {
             @Override
             public void onPurchasesUpdated(final @NonNull BillingResult billingResult,
                     final @Nullable List<Purchase> purchases) {
+                final long received = SystemClock.uptimeMillis();
                 getHandler().post(new Runnable() {
                     @Override
                     public void run() {
+                        record(DynamicBillingJournal.EVENT_PURCHASES_UPDATED,
+                                billingResult.getResponseCode(),
+                                getProductsHash(purchases), received);
+
+                        if (billingResult.getResponseCode()
+                                == BillingClient.BillingResponseCode.OK) {
+                            List<Purchase> active = getExpiryScheduler().getActivePurchases(
+                                    purchases, System.currentTimeMillis());
+                            getRefreshScheduler().onPurchasesUpdated(active);
+                            getEntitlementRegistry().onPurchasesUpdated(active);
+                            getExpiryScheduler().onPurchasesUpdated(active);
+                            publishEntitlements();
+                            scheduleExpiry();
+                            schedulePurchasesRefresh();
+                        }
+
                         for (PurchasesUpdatedListener listener : getPurchaseListeners()) {
                             listener.onPurchasesUpdated(billingResult, purchases);
                         }
@@ -191,9 +361,26 @@ public class DynamicBilling {
             @Override
             public void onProductDetailsResponse(final @NonNull BillingResult billingResult,
                     final @NonNull QueryProductDetailsResult queryProductDetailsResult) {
+                final long received = SystemClock.uptimeMillis();
                 getHandler().post(new Runnable() {
                     @Override
                     public void run() {
+                        record(DynamicBillingJournal.EVENT_PRODUCT_DETAILS,
+                                billingResult.getResponseCode(), getProductDetailsHash(
+                                        queryProductDetailsResult.getProductDetailsList()),
+                                received);
+
+                        if (billingResult.getResponseCode()
+                                == BillingClient.BillingResponseCode.OK) {
+                            getRefreshScheduler().onProductDetails(
+                                    queryProductDetailsResult.getProductDetailsList());
+                            getOfferResolver().onProductDetails(
+                                    queryProductDetailsResult.getProductDetailsList());
+                            getExpiryScheduler().onProductDetails(
+                                    queryProductDetailsResult.getProductDetailsList());
+                            schedulePurchasesRefresh();
+                        }
+
                         for (ProductDetailsResponseListener listener : getPurchaseListeners()) {
                             listener.onProductDetailsResponse(billingResult,
                                     queryProductDetailsResult);
@@ -207,9 +394,25 @@ public class DynamicBilling {
             @Override
             public void onQueryPurchasesResponse(final @NonNull BillingResult billingResult,
                     final @NonNull List<Purchase> purchases) {
+                final long received = SystemClock.uptimeMillis();
                 getHandler().post(new Runnable() {
                     @Override
                     public void run() {
+                        record(DynamicBillingJournal.EVENT_QUERY_PURCHASES,
+                                billingResult.getResponseCode(),
+                                getProductsHash(purchases), received);
+
+                        if (billingResult.getResponseCode()
+                                == BillingClient.BillingResponseCode.OK) {
+                            List<Purchase> active = getExpiryScheduler().getActivePurchases(
+                                    purchases, System.currentTimeMillis());
+                            getRefreshScheduler().onPurchasesUpdated(active);
+                            getEntitlementRegistry().onPurchasesUpdated(active);
+                            getExpiryScheduler().onPurchasesUpdated(active);
+                            publishEntitlements();
+                            scheduleExpiry();
+                        }
+
                         for (PurchasesResponseListener listener : getPurchaseListeners()) {
                             listener.onQueryPurchasesResponse(billingResult, purchases);
                         }
@@ -222,9 +425,13 @@ public class DynamicBilling {
             @Override
             public void onConsumeResponse(@NonNull BillingResult billingResult,
                     @NonNull String purchaseToken) {
+                final long received = SystemClock.uptimeMillis();
                 getHandler().post(new Runnable() {
                     @Override
                     public void run() {
+                        record(DynamicBillingJournal.EVENT_CONSUME,
+                                billingResult.getResponseCode(), 0, received);
+
                         for (ConsumeResponseListener listener : getPurchaseListeners()) {
                             listener.onConsumeResponse(billingResult, purchaseToken);
                         }
@@ -236,9 +443,13 @@ public class DynamicBilling {
         this.mAcknowledgePurchaseResponseListener = new AcknowledgePurchaseResponseListener() {
             @Override
             public void onAcknowledgePurchaseResponse(@NonNull BillingResult billingResult) {
+                final long received = SystemClock.uptimeMillis();
                 getHandler().post(new Runnable() {
                     @Override
                     public void run() {
+                        record(DynamicBillingJournal.EVENT_ACKNOWLEDGE,
+                                billingResult.getResponseCode(), 0, received);
+
                         for (AcknowledgePurchaseResponseListener listener
                                 : getPurchaseListeners()) {
                             listener.onAcknowledgePurchaseResponse(billingResult);
@@ -266,6 +477,21 @@ public class DynamicBilling {
                 .enableAutoServiceReconnection()
                 .build();
 
+        this.mExternalCache = new DynamicExternalCache(getContext());
+        this.mExternalCache.register();
+
+        getContext().registerComponentCallbacks(new ComponentCallbacks() {
+            @Override
+            public void onConfigurationChanged(@NonNull Configuration newConfig) {
+                DynamicBillingUtils.clearCache();
+            }
+
+            @Override
+            public void onLowMemory() {
+                DynamicBillingUtils.clearCache();
+            }
+        });
+
         if (getContext() instanceof DynamicBillingListener) {
             addListener((DynamicBillingListener) getContext());
         }
@@ -470,6 +696,323 @@ public class DynamicBilling {
         mBillingClient.queryPurchasesAsync(params, mPurchasesResponseListener);
     }
 
+    /**
+     * Query purchases for the supplied product type and update the refresh scheduler.
+     *
+     * @param type The product type to query the purchases.
+     * @param params The params to query the purchases.
+     */
+    private void queryPurchasesAsync(final @DynamicProduct.Type String type,
+            @NonNull QueryPurchasesParams params) {
+        mBillingClient.queryPurchasesAsync(params, new PurchasesResponseListener() {
+            @Override
+            public void onQueryPurchasesResponse(final @NonNull BillingResult billingResult,
+                    final @NonNull List<Purchase> purchases) {
+                final long received = SystemClock.uptimeMillis();
+                getHandler().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        record(DynamicBillingJournal.EVENT_QUERY_PURCHASES,
+                                billingResult.getResponseCode(),
+                                getProductsHash(purchases), received);
+
+                        int responseCode = billingResult.getResponseCode();
+                        if (responseCode == BillingClient.BillingResponseCode.OK) {
+                            long now = System.currentTimeMillis();
+                            List<Purchase> active =
+                                    getExpiryScheduler().getActivePurchases(purchases, now);
+                            getRefreshScheduler().onPurchasesRefreshed(type, active, now);
+                            getEntitlementRegistry().onPurchasesRefreshed(type, active);
+                            getExpiryScheduler().onPurchasesUpdated(active);
+                            publishEntitlements();
+                            scheduleExpiry();
+                        } else if (responseCode
+                                == BillingClient.BillingResponseCode.SERVICE_UNAVAILABLE
+                                || responseCode
+                                == BillingClient.BillingResponseCode.BILLING_UNAVAILABLE
+                                || responseCode
+                                == BillingClient.BillingResponseCode.SERVICE_DISCONNECTED
+                                || responseCode
+                                == BillingClient.BillingResponseCode.NETWORK_ERROR) {
+                            getRefreshScheduler().onUnavailable(System.currentTimeMillis());
+                        }
+
+                        schedulePurchasesRefresh();
+
+                        for (PurchasesResponseListener listener : getPurchaseListeners()) {
+                            listener.onQueryPurchasesResponse(billingResult, purchases);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Try to refresh the in-app and subscription purchases.
+     * <p>The refresh will be skipped while the purchases data is fresh unless forced.
+     *
+     * @param force {@code true} to refresh even if the purchases data is fresh.
+     *
+     * @return {@code true} if the purchases are being refreshed.
+     *
+     * @see DynamicRefreshScheduler#isRefreshRequired(long)
+     */
+    public boolean refreshPurchases(boolean force) {
+        getHandler().removeCallbacks(mRefreshRunnable);
+
+        if (!force && !getRefreshScheduler().isRefreshRequired(System.currentTimeMillis())) {
+            schedulePurchasesRefresh();
+
+            return false;
+        }
+
+        if (!isInitialized() || !isConnected()) {
+            startConnection();
+
+            return false;
+        }
+
+        queryPurchasesAsync(DynamicInApp.TYPE, DynamicInApp.QUERY_PURCHASES_PARAMS);
+        queryPurchasesAsync(DynamicSubscription.TYPE, DynamicSubscription.QUERY_PURCHASES_PARAMS);
+
+        return true;
+    }
+
+    /**
+     * Try to refresh the in-app and subscription purchases if required.
+     *
+     * @return {@code true} if the purchases are being refreshed.
+     *
+     * @see #refreshPurchases(boolean)
+     */
+    public boolean refreshPurchases() {
+        return refreshPurchases(false);
+    }
+
+    /**
+     * Schedule the next purchases refresh if the auto refresh is enabled.
+     *
+     * @see #setAutoRefresh(boolean)
+     * @see DynamicRefreshScheduler#getNextRefreshDelay(long)
+     */
+    public void schedulePurchasesRefresh() {
+        getHandler().removeCallbacks(mRefreshRunnable);
+
+        if (isAutoRefresh()) {
+            getHandler().postDelayed(mRefreshRunnable, getRefreshScheduler()
+                    .getNextRefreshDelay(System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Returns the scheduler to compute the next useful time to refresh the purchases.
+     *
+     * @return The scheduler to compute the next useful time to refresh the purchases.
+     */
+    public @NonNull DynamicRefreshScheduler getRefreshScheduler() {
+        return mRefreshScheduler;
+    }
+
+    /**
+     * Returns the journal to record the recent billing events for the diagnostics.
+     * <p>Use {@link DynamicBillingJournal#dump()} to attach it with a bug report.
+     *
+     * @return The journal to record the recent billing events.
+     */
+    public @NonNull DynamicBillingJournal getJournal() {
+        return mJournal;
+    }
+
+    /**
+     * Record a billing event in the journal along with its dispatch delay.
+     *
+     * @param event The type of the event.
+     * @param responseCode The billing response code.
+     * @param productsHash The hash of the product ids.
+     * @param received The uptime in milliseconds when the event was received.
+     */
+    private void record(int event, int responseCode, int productsHash, long received) {
+        getJournal().record(event, responseCode, productsHash,
+                SystemClock.uptimeMillis() - received, getPurchaseListeners().size());
+    }
+
+    /**
+     * Returns the hash of the product ids for the supplied purchases.
+     * <p>{@link Purchase#getProducts()} allocates a new list on each call, so the hash is
+     * cached per purchase and only its first occurrence will allocate.
+     *
+     * @param purchases The purchases to be used.
+     *
+     * @return The hash of the product ids for the supplied purchases.
+     */
+    private int getProductsHash(@Nullable List<Purchase> purchases) {
+        if (purchases == null) {
+            return 0;
+        }
+
+        int hash = 1;
+        for (int i = 0; i < purchases.size(); i++) {
+            Purchase purchase = purchases.get(i);
+            Integer productsHash = mProductsHashes.get(purchase.getOriginalJson());
+            if (productsHash == null) {
+                productsHash = DynamicBillingJournal.hash(purchase.getProducts());
+                mProductsHashes.put(purchase.getOriginalJson(), productsHash);
+            }
+
+            hash = 31 * hash + productsHash;
+        }
+
+        return hash;
+    }
+
+    /**
+     * Returns the hash of the product ids for the supplied product details.
+     *
+     * @param productDetailsList The product details to be used.
+     *
+     * @return The hash of the product ids for the supplied product details.
+     */
+    private static int getProductDetailsHash(@Nullable List<ProductDetails> productDetailsList) {
+        if (productDetailsList == null) {
+            return 0;
+        }
+
+        int hash = 1;
+        for (int i = 0; i < productDetailsList.size(); i++) {
+            hash = 31 * hash + productDetailsList.get(i).getProductId().hashCode();
+        }
+
+        return hash;
+    }
+
+    /**
+     * Returns the resolver to index the subscription offers by their base plan.
+     * <p>It is updated whenever the product details are received.
+     *
+     * @return The resolver to index the subscription offers by their base plan.
+     */
+    public @NonNull DynamicOfferResolver getOfferResolver() {
+        return mOfferResolver;
+    }
+
+    /**
+     * Returns the registry to resolve the feature entitlements from the purchases.
+     * <p>Register the app features once so that they can be checked without iterating
+     * the purchases.
+     *
+     * @return The registry to resolve the feature entitlements from the purchases.
+     */
+    public @NonNull DynamicEntitlementRegistry getEntitlementRegistry() {
+        return mEntitlementRegistry;
+    }
+
+    /**
+     * Returns the cache to memoize the active state of the external products.
+     *
+     * @return The cache to memoize the active state of the external products.
+     */
+    public @NonNull DynamicExternalCache getExternalCache() {
+        return mExternalCache;
+    }
+
+    /**
+     * Check the supplied external products in a single background pass and update
+     * the entitlements.
+     * <p>They will be checked again whenever their package is added, removed or replaced.
+     *
+     * @param products The external products to be checked.
+     *
+     * @see DynamicExternalCache#track(List, DynamicExternalListener)
+     */
+    @MainThread
+    public void checkExternalProducts(@Nullable List<? extends External> products) {
+        if (!isInitialized()) {
+            return;
+        }
+
+        getExternalCache().track(products, mExternalListener);
+    }
+
+    /**
+     * Returns the scheduler to lapse the expiring entitlements like rentals and
+     * prepaid plans.
+     *
+     * @return The scheduler to lapse the expiring entitlements.
+     */
+    public @NonNull DynamicExpiryScheduler getExpiryScheduler() {
+        return mExpiryScheduler;
+    }
+
+    /**
+     * Schedule a single alarm for the earliest tracked expiry.
+     * <p>Features depending on the expired products will be disabled when it fires.
+     *
+     * @see DynamicExpiryScheduler#getNextExpiryTime()
+     */
+    @MainThread
+    public void scheduleExpiry() {
+        getHandler().removeCallbacks(mExpiryRunnable);
+
+        long next = getExpiryScheduler().getNextExpiryTime();
+        if (next != DynamicExpiryScheduler.UNKNOWN) {
+            getHandler().postDelayed(mExpiryRunnable,
+                    Math.max(0, next - System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Returns the latest immutable entitlement snapshot.
+     * <p>It can be called from any thread without locking to get a consistent view of
+     * all the registered features.
+     *
+     * @return The latest immutable entitlement snapshot.
+     */
+    public @NonNull DynamicEntitlementSnapshot getEntitlementSnapshot() {
+        return mEntitlementSnapshot.get();
+    }
+
+    /**
+     * Publish a new entitlement snapshot from the current state of the registry.
+     * <p>Call it after registering the features or modifying the registry directly.
+     *
+     * @return The published entitlement snapshot.
+     *
+     * @see #getEntitlementRegistry()
+     */
+    @MainThread
+    public @NonNull DynamicEntitlementSnapshot publishEntitlements() {
+        DynamicEntitlementSnapshot snapshot = getEntitlementRegistry().getSnapshot(
+                mEntitlementSnapshot.get().getVersion() + 1);
+        mEntitlementSnapshot.set(snapshot);
+
+        return snapshot;
+    }
+
+    /**
+     * Returns whether the purchases will be refreshed automatically when required.
+     *
+     * @return {@code true} if the purchases will be refreshed automatically when required.
+     */
+    public boolean isAutoRefresh() {
+        return mAutoRefresh;
+    }
+
+    /**
+     * Sets whether to refresh the purchases automatically when required.
+     *
+     * @param autoRefresh {@code true} to refresh the purchases automatically when required.
+     *
+     * @return The {@link DynamicBilling} object to allow for chaining of calls to set methods.
+     */
+    public @NonNull DynamicBilling setAutoRefresh(boolean autoRefresh) {
+        this.mAutoRefresh = autoRefresh;
+
+        schedulePurchasesRefresh();
+
+        return this;
+    }
+
     /**
      * Try to consume the supplied purchase.
      *
@@ -574,7 +1117,9 @@ public class DynamicBilling {
             return;
         }
 
-        mBillingClient.launchBillingFlow(activity, params);
+        getJournal().record(DynamicBillingJournal.EVENT_LAUNCH_BILLING_FLOW,
+                mBillingClient.launchBillingFlow(activity, params).getResponseCode(),
+                0, 0, getPurchaseListeners().size());
     }
 
     /**
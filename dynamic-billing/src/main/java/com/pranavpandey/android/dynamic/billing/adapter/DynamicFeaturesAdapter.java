@@ -28,16 +28,43 @@ import java.util.List;
 
 /**
  * A {@link SimpleDataBinderAdapter} to handle the {@link DynamicFeatureBinder}.
+ * <p>A {@link Resolver} can be supplied to resolve the {@code null} entries of the data at
+ * the bind time, so that only the visible items are resolved. It also provides the stable
+ * ids for the items.
  */
 public class DynamicFeaturesAdapter extends
         SimpleDataBinderAdapter<List<DynamicInfo>, DynamicFeatureBinder> {
 
+    /**
+     * View type of the feature cards, it can be used to size a shared view pool.
+     */
+    public static final int TYPE_FEATURE = 0;
+
+    /**
+     * Resolver to resolve the data at the bind time.
+     */
+    private final Resolver mResolver;
+
     /**
      * Constructor to initialize an object of this class.
      *
      * @param data The data for this adapter.
      */
     public DynamicFeaturesAdapter(@Nullable List<DynamicInfo> data) {
+        this(data, null);
+    }
+
+    /**
+     * Constructor to initialize an object of this class.
+     *
+     * @param data The data for this adapter, it must be mutable to use the resolver.
+     * @param resolver The resolver to resolve the {@code null} entries at the bind time.
+     */
+    public DynamicFeaturesAdapter(@Nullable List<DynamicInfo> data,
+            @Nullable Resolver resolver) {
+        this.mResolver = resolver;
+
+        setHasStableIds(resolver != null);
         addDataBinder(new DynamicFeatureBinder(this));
         setData(data);
     }
@@ -45,8 +72,60 @@ public class DynamicFeaturesAdapter extends
     @Override
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
         if (getData() != null) {
-            getDataBinder(getItemViewType(position)).setData(getData().get(position));
+            DynamicInfo info = getData().get(position);
+            if (info == null && mResolver != null) {
+                info = mResolver.onResolveInfo(position);
+                getData().set(position, info);
+            }
+
+            getDataBinder(getItemViewType(position)).setData(info);
         }
         super.onBindViewHolder(holder, position);
     }
+
+    /**
+     * Release the resolved data for the supplied range, so that it can be resolved again
+     * at the bind time.
+     *
+     * @param start The start position, inclusive.
+     * @param end The end position, exclusive.
+     */
+    public void release(int start, int end) {
+        if (mResolver == null || getData() == null) {
+            return;
+        }
+
+        for (int i = Math.max(0, start); i < Math.min(end, getData().size()); i++) {
+            getData().set(i, null);
+        }
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return mResolver != null ? mResolver.getItemId(position) : RecyclerView.NO_ID;
+    }
+
+    /**
+     * An interface to resolve the data at the bind time.
+     */
+    public interface Resolver {
+
+        /**
+         * This method will be called to resolve the data for the supplied position.
+         *
+         * @param position The position of the item.
+         *
+         * @return The resolved data for the supplied position.
+         */
+        @NonNull DynamicInfo onResolveInfo(int position);
+
+        /**
+         * This method will be called to get the stable id for the supplied position.
+         *
+         * @param position The position of the item.
+         *
+         * @return The stable id for the supplied position.
+         */
+        long getItemId(int position);
+    }
 }
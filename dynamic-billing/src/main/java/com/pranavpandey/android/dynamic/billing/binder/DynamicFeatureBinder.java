@@ -16,13 +16,16 @@
 
 package com.pranavpandey.android.dynamic.billing.binder;
 
+import android.content.Context;
 import android.view.LayoutInflater;
+import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
 
 import com.pranavpandey.android.dynamic.billing.R;
 import com.pranavpandey.android.dynamic.billing.adapter.DynamicFeaturesAdapter;
+import com.pranavpandey.android.dynamic.billing.util.DynamicInflationPool;
 import com.pranavpandey.android.dynamic.support.Defaults;
 import com.pranavpandey.android.dynamic.support.Dynamic;
 import com.pranavpandey.android.dynamic.support.model.DynamicInfo;
@@ -33,6 +36,7 @@ import com.pranavpandey.android.dynamic.support.recyclerview.binder.factory.Info
  * An {@link InfoBigBinder} to bind the {@link DynamicInfo} inside a
  * {@link androidx.cardview.widget.CardView} that can be used with the
  * {@link DynamicFeaturesAdapter}.
+ * <p>The cards can be inflated ahead of time by using the {@link #prefetch(Context, int)}.
  */
 public class DynamicFeatureBinder extends InfoBinder<String> {
 
@@ -45,10 +49,25 @@ public class DynamicFeatureBinder extends InfoBinder<String> {
         super(binderAdapter);
     }
 
+    /**
+     * Inflate the supplied number of feature cards ahead of time on a background looper.
+     *
+     * @param context The context used by the features view.
+     * @param count The number of feature cards to be inflated.
+     *
+     * @see DynamicInflationPool
+     */
+    public static void prefetch(@NonNull Context context, int count) {
+        DynamicInflationPool.prefetch(context, R.layout.adb_layout_feature_card, count);
+    }
+
     @Override
     public @NonNull ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        return new ViewHolder(LayoutInflater.from(parent.getContext()).inflate(
-                R.layout.adb_layout_feature_card, parent, false));
+        View view = DynamicInflationPool.acquire(
+                parent.getContext(), R.layout.adb_layout_feature_card);
+
+        return new ViewHolder(view != null ? view : LayoutInflater.from(
+                parent.getContext()).inflate(R.layout.adb_layout_feature_card, parent, false));
     }
 
     @Override
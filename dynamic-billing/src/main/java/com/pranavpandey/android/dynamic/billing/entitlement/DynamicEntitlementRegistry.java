@@ -0,0 +1,452 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.entitlement;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.android.billingclient.api.Purchase;
+import com.pranavpandey.android.dynamic.billing.model.base.DynamicFeature;
+import com.pranavpandey.android.dynamic.billing.model.base.DynamicProduct;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A catalog-wide registry to resolve the feature entitlements by using the bitsets.
+ * <p>Each product and feature is assigned a dense index, the products to enable a feature
+ * and the current purchases are stored as bitsets so that checking a feature becomes
+ * a bitwise AND by using the {@link DynamicEntitlementRule}.
+ *
+ * <p>All the methods must be called on the main thread.
+ */
+@MainThread
+public class DynamicEntitlementRegistry {
+
+    /**
+     * Constant value for the unknown index.
+     */
+    public static final int UNKNOWN = -1;
+
+    /**
+     * Number of bits in a bitset word.
+     */
+    private static final int WORD_SIZE = DynamicEntitlementRule.WORD_SIZE;
+
+    /**
+     * Map to hold the product indexes mapped with their id.
+     */
+    private final Map<String, Integer> mProductIndexes;
+
+    /**
+     * Map to hold the feature indexes mapped with their id.
+     */
+    private final Map<String, Integer> mFeatureIndexes;
+
+    /**
+     * Product types for each product index.
+     */
+    private final List<String> mProductTypes;
+
+    /**
+     * Features for each feature index.
+     */
+    private final List<DynamicFeature> mFeatures;
+
+    /**
+     * Products bitset for each feature index.
+     */
+    private long[][] mFeatureProducts;
+
+    /**
+     * Map to hold the product bitsets mapped with their type.
+     */
+    private final Map<String, long[]> mTypeMasks;
+
+    /**
+     * Bitset of the purchased products.
+     */
+    private long[] mPurchased;
+
+    /**
+     * Unmodifiable copy of the product indexes to be shared with the snapshots.
+     */
+    private Map<String, Integer> mProductIndexesView;
+
+    /**
+     * Unmodifiable copy of the feature indexes to be shared with the snapshots.
+     */
+    private Map<String, Integer> mFeatureIndexesView;
+
+    /**
+     * Constructor to initialize an object of this class.
+     */
+    public DynamicEntitlementRegistry() {
+        this.mProductIndexes = new HashMap<>();
+        this.mFeatureIndexes = new HashMap<>();
+        this.mProductTypes = new ArrayList<>();
+        this.mFeatures = new ArrayList<>();
+        this.mFeatureProducts = new long[0][];
+        this.mTypeMasks = new HashMap<>();
+        this.mPurchased = new long[0];
+    }
+
+    /**
+     * Register a product and returns its dense index.
+     *
+     * @param product The product to be registered.
+     *
+     * @return The dense index for the supplied product.
+     */
+    public int registerProduct(@NonNull DynamicProduct product) {
+        Integer index = mProductIndexes.get(product.getId());
+        if (index != null) {
+            return index;
+        }
+
+        index = mProductTypes.size();
+        mProductIndexes.put(product.getId(), index);
+        mProductIndexesView = null;
+        mProductTypes.add(product.getType());
+
+        long[] mask = mTypeMasks.get(product.getType());
+        mTypeMasks.put(product.getType(), DynamicEntitlementRule.set(
+                mask != null ? mask : new long[0], index));
+
+        if (mPurchased.length < DynamicEntitlementRule.getWords(index + 1)) {
+            mPurchased = Arrays.copyOf(mPurchased, DynamicEntitlementRule.getWords(index + 1));
+        }
+
+        return index;
+    }
+
+    /**
+     * Register a feature along with its products and returns its dense index.
+     * <p>Registering it again will replace its products with the supplied ones.
+     *
+     * @param feature The feature to be registered.
+     *
+     * @return The dense index for the supplied feature.
+     */
+    public int registerFeature(@NonNull DynamicFeature feature) {
+        Integer index = mFeatureIndexes.get(feature.getId());
+        if (index == null) {
+            index = mFeatures.size();
+            mFeatureIndexes.put(feature.getId(), index);
+            mFeatureIndexesView = null;
+            mFeatures.add(feature);
+            mFeatureProducts = Arrays.copyOf(mFeatureProducts, index + 1);
+        } else {
+            mFeatures.set(index, feature);
+        }
+
+        mFeatureProducts[index] = new long[0];
+        for (DynamicProduct product : feature.getProducts()) {
+            mFeatureProducts[index] = DynamicEntitlementRule.set(
+                    mFeatureProducts[index], registerProduct(product));
+        }
+
+        return index;
+    }
+
+    /**
+     * Register the supplied features along with their products.
+     *
+     * @param features The features to be registered.
+     *
+     * @return The {@link DynamicEntitlementRegistry} object to allow for chaining of calls
+     *         to register methods.
+     */
+    public @NonNull DynamicEntitlementRegistry registerFeatures(
+            @Nullable List<DynamicFeature> features) {
+        if (features != null) {
+            for (DynamicFeature feature : features) {
+                registerFeature(feature);
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Returns the number of registered products.
+     *
+     * @return The number of registered products.
+     */
+    public int getProductCount() {
+        return mProductTypes.size();
+    }
+
+    /**
+     * Returns the number of registered features.
+     *
+     * @return The number of registered features.
+     */
+    public int getFeatureCount() {
+        return mFeatures.size();
+    }
+
+    /**
+     * Returns the dense index for the supplied product id.
+     *
+     * @param productId The product id to be searched.
+     *
+     * @return The dense index for the supplied product id, otherwise {@link #UNKNOWN}.
+     */
+    public int indexOfProduct(@Nullable String productId) {
+        Integer index = mProductIndexes.get(productId);
+        return index != null ? index : UNKNOWN;
+    }
+
+    /**
+     * Returns the dense index for the supplied feature id.
+     *
+     * @param featureId The feature id to be searched.
+     *
+     * @return The dense index for the supplied feature id, otherwise {@link #UNKNOWN}.
+     */
+    public int indexOfFeature(@Nullable String featureId) {
+        Integer index = mFeatureIndexes.get(featureId);
+        return index != null ? index : UNKNOWN;
+    }
+
+    /**
+     * Returns the feature for the supplied dense index.
+     *
+     * @param feature The dense index of the feature.
+     *
+     * @return The feature for the supplied dense index.
+     */
+    public @NonNull DynamicFeature getFeature(int feature) {
+        return mFeatures.get(feature);
+    }
+
+    /**
+     * Returns whether the supplied product is purchased.
+     *
+     * @param product The dense index of the product.
+     *
+     * @return {@code true} if the supplied product is purchased.
+     */
+    public boolean isPurchased(int product) {
+        return DynamicEntitlementRule.get(mPurchased, product);
+    }
+
+    /**
+     * Sets whether the supplied product is purchased.
+     *
+     * @param product The dense index of the product.
+     * @param purchased {@code true} if the product is purchased.
+     */
+    public void setPurchased(int product, boolean purchased) {
+        if (product < 0 || product >= getProductCount()) {
+            return;
+        }
+
+        if (purchased) {
+            mPurchased[product / WORD_SIZE] |= 1L << (product % WORD_SIZE);
+        } else {
+            mPurchased[product / WORD_SIZE] &= ~(1L << (product % WORD_SIZE));
+        }
+    }
+
+    /**
+     * Returns whether the supplied feature is enabled by any purchased product.
+     *
+     * @param feature The dense index of the feature.
+     *
+     * @return {@code true} if the supplied feature is enabled.
+     */
+    public boolean isEnabled(int feature) {
+        if (feature < 0 || feature >= mFeatureProducts.length) {
+            return false;
+        }
+
+        return DynamicEntitlementRule.isEnabled(mFeatureProducts[feature], mPurchased);
+    }
+
+    /**
+     * Returns whether the supplied feature is enabled by any purchased product.
+     *
+     * @param featureId The id of the feature.
+     *
+     * @return {@code true} if the supplied feature is enabled.
+     */
+    public boolean isEnabled(@Nullable String featureId) {
+        return isEnabled(indexOfFeature(featureId));
+    }
+
+    /**
+     * Update the purchased products from the supplied purchases.
+     * <p>Only the purchased state will be considered and the existing purchases will be
+     * retained.
+     *
+     * @param purchases The updated purchases.
+     */
+    public void onPurchasesUpdated(@Nullable List<Purchase> purchases) {
+        if (purchases == null) {
+            return;
+        }
+
+        for (Purchase purchase : purchases) {
+            if (purchase.getPurchaseState() != Purchase.PurchaseState.PURCHASED) {
+                continue;
+            }
+
+            for (String productId : purchase.getProducts()) {
+                setPurchased(indexOfProduct(productId), true);
+            }
+        }
+
+        updateFeatures();
+    }
+
+    /**
+     * Replace the purchased products of the supplied type from the refreshed purchases.
+     * <p>The features of that type which are no longer entitled by any purchased product
+     * will be disabled, like they are on {@link #revoke(String)}.
+     *
+     * @param type The product type for the refreshed purchases.
+     * @param purchases The refreshed purchases.
+     */
+    public void onPurchasesRefreshed(@DynamicProduct.Type String type,
+            @Nullable List<Purchase> purchases) {
+        long[] mask = mTypeMasks.get(type);
+        if (mask != null) {
+            for (int i = 0; i < mask.length; i++) {
+                mPurchased[i] &= ~mask[i];
+            }
+        }
+
+        onPurchasesUpdated(purchases);
+
+        if (mask == null) {
+            return;
+        }
+
+        for (int i = 0; i < mFeatures.size(); i++) {
+            if (DynamicEntitlementRule.isEnabled(mFeatureProducts[i], mask) && !isEnabled(i)
+                    && mFeatures.get(i).isEnabled()) {
+                mFeatures.get(i).setEnabled(false);
+            }
+        }
+    }
+
+    /**
+     * Revoke the supplied product and disable the features which are no longer entitled
+     * by any purchased product.
+     *
+     * @param productId The id of the product to be revoked.
+     *
+     * @return {@code true} if any feature has been disabled.
+     *
+     * @see DynamicExpiryScheduler
+     */
+    public boolean revoke(@Nullable String productId) {
+        int product = indexOfProduct(productId);
+        if (!isPurchased(product)) {
+            return false;
+        }
+
+        setPurchased(product, false);
+
+        boolean disabled = false;
+        int word = product / WORD_SIZE;
+        long bit = 1L << (product % WORD_SIZE);
+        for (int i = 0; i < mFeatures.size(); i++) {
+            long[] products = mFeatureProducts[i];
+            if (word < products.length && (products[word] & bit) != 0 && !isEnabled(i)
+                    && mFeatures.get(i).isEnabled()) {
+                mFeatures.get(i).setEnabled(false);
+                disabled = true;
+            }
+        }
+
+        return disabled;
+    }
+
+    /**
+     * Enable the registered features which are entitled by the purchased products.
+     * <p>Features are never disabled here to keep the behavior consistent with the
+     * {@link DynamicFeature#onVerifyStatus(com.android.billingclient.api.BillingResult,
+     * List)}.
+     */
+    public void updateFeatures() {
+        for (int i = 0; i < mFeatures.size(); i++) {
+            if (isEnabled(i)) {
+                mFeatures.get(i).setEnabled(true);
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the current entitlement state.
+     *
+     * @return A copy of the purchased products bitset.
+     */
+    public @NonNull long[] snapshot() {
+        return mPurchased.clone();
+    }
+
+    /**
+     * Returns an immutable snapshot of the current entitlement state.
+     *
+     * @param version The version for the snapshot.
+     *
+     * @return An immutable snapshot of the current entitlement state.
+     */
+    public @NonNull DynamicEntitlementSnapshot getSnapshot(long version) {
+        if (mProductIndexesView == null) {
+            mProductIndexesView = Collections.unmodifiableMap(new HashMap<>(mProductIndexes));
+        }
+
+        if (mFeatureIndexesView == null) {
+            mFeatureIndexesView = Collections.unmodifiableMap(new HashMap<>(mFeatureIndexes));
+        }
+
+        return DynamicEntitlementSnapshot.of(version, mProductIndexesView, mFeatureIndexesView,
+                mPurchased, DynamicEntitlementRule.getEnabled(
+                        mFeatureProducts, mFeatures.size(), mPurchased));
+    }
+
+    /**
+     * Restore the entitlement state from the supplied snapshot.
+     *
+     * @param snapshot The snapshot to be restored.
+     *
+     * @see #snapshot()
+     */
+    public void restore(@NonNull long[] snapshot) {
+        Arrays.fill(mPurchased, 0);
+        System.arraycopy(snapshot, 0, mPurchased, 0,
+                Math.min(snapshot.length, mPurchased.length));
+
+        updateFeatures();
+    }
+
+    /**
+     * Clear the purchased products.
+     */
+    public void clear() {
+        Arrays.fill(mPurchased, 0);
+    }
+}
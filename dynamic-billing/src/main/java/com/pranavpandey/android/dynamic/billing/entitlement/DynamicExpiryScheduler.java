@@ -0,0 +1,433 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.entitlement;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.android.billingclient.api.ProductDetails;
+import com.android.billingclient.api.Purchase;
+import com.pranavpandey.android.dynamic.billing.model.BillingPeriod;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * A scheduler to track the expiry of the rentals and prepaid plans.
+ * <p>Expiries are kept in a min-heap so that only one alarm is required for the earliest
+ * expiry, it scales to thousands of tracked entitlements without any polling.
+ *
+ * <p>A purchase does not identify the offer or base plan it was bought with, so an expiry
+ * is only applied when every offer of the product expires. Products mixing a permanent
+ * offer with a rental, or an auto-renewing plan with a prepaid one, are never lapsed.
+ * The valid time window of an offer limits when it can be bought and is not used as an
+ * entitlement end date.
+ *
+ * <p>All the methods must be called on the main thread.
+ *
+ * @see #getNextExpiryTime()
+ * @see #expire(long)
+ */
+@MainThread
+public class DynamicExpiryScheduler {
+
+    /**
+     * Constant value for the unknown time.
+     */
+    public static final long UNKNOWN = -1;
+
+    /**
+     * Map to hold the rental periods in milliseconds mapped with their product id.
+     */
+    private final Map<String, Long> mRentals;
+
+    /**
+     * Map to hold the prepaid periods in milliseconds mapped with their product id.
+     */
+    private final Map<String, Long> mPrepaid;
+
+    /**
+     * Map to hold the active expiry entries mapped with their purchase token.
+     */
+    private final Map<String, Entry> mEntries;
+
+    /**
+     * Map to hold the number of active entries mapped with their product id.
+     */
+    private final Map<String, Integer> mActive;
+
+    /**
+     * Min-heap of the expiry entries ordered by their expiry time.
+     */
+    private final PriorityQueue<Entry> mQueue;
+
+    /**
+     * Constructor to initialize an object of this class.
+     */
+    public DynamicExpiryScheduler() {
+        this.mRentals = new HashMap<>();
+        this.mPrepaid = new HashMap<>();
+        this.mEntries = new HashMap<>();
+        this.mActive = new HashMap<>();
+        this.mQueue = new PriorityQueue<>();
+    }
+
+    /**
+     * Returns the duration in milliseconds for the supplied ISO 8601 period.
+     *
+     * @param period The ISO 8601 formatted period.
+     *
+     * @return The duration in milliseconds for the supplied period, otherwise {@code 0}.
+     */
+    private static long getMillis(@Nullable String period) {
+        BillingPeriod billingPeriod = BillingPeriod.parse(period);
+        return billingPeriod != null ? billingPeriod.getMillis() : 0;
+    }
+
+    /**
+     * Update the expiring periods from the supplied product details.
+     *
+     * @param productDetailsList The product details to be used.
+     */
+    public void onProductDetails(@Nullable List<ProductDetails> productDetailsList) {
+        if (productDetailsList == null) {
+            return;
+        }
+
+        for (ProductDetails productDetails : productDetailsList) {
+            String productId = productDetails.getProductId();
+            mRentals.remove(productId);
+            mPrepaid.remove(productId);
+
+            long rental = getRentalPeriod(productDetails);
+            if (rental > 0) {
+                mRentals.put(productId, rental);
+            }
+
+            long prepaid = getPrepaidPeriod(productDetails);
+            if (prepaid > 0) {
+                mPrepaid.put(productId, prepaid);
+            }
+        }
+    }
+
+    /**
+     * Returns the longest rental period if all the one-time offers of the supplied product
+     * are rentals.
+     *
+     * @param productDetails The product details to be used.
+     *
+     * @return The longest rental period in milliseconds, otherwise {@code 0} if any offer
+     *         grants a permanent entitlement.
+     */
+    private static long getRentalPeriod(@NonNull ProductDetails productDetails) {
+        List<ProductDetails.OneTimePurchaseOfferDetails> offers =
+                productDetails.getOneTimePurchaseOfferDetailsList();
+        if (offers == null || offers.isEmpty()) {
+            return 0;
+        }
+
+        long rental = 0;
+        for (ProductDetails.OneTimePurchaseOfferDetails offer : offers) {
+            long period = offer.getRentalDetails() != null
+                    ? getMillis(offer.getRentalDetails().getRentalPeriod()) : 0;
+            if (period <= 0) {
+                return 0;
+            }
+
+            rental = Math.max(rental, period);
+        }
+
+        return rental;
+    }
+
+    /**
+     * Returns the longest prepaid period if all the base plans of the supplied product
+     * are prepaid.
+     *
+     * @param productDetails The product details to be used.
+     *
+     * @return The longest prepaid period in milliseconds, otherwise {@code 0} if any base
+     *         plan is auto-renewing.
+     */
+    private static long getPrepaidPeriod(@NonNull ProductDetails productDetails) {
+        List<ProductDetails.SubscriptionOfferDetails> offers =
+                productDetails.getSubscriptionOfferDetails();
+        if (offers == null || offers.isEmpty()) {
+            return 0;
+        }
+
+        long prepaid = 0;
+        for (ProductDetails.SubscriptionOfferDetails offer : offers) {
+            List<ProductDetails.PricingPhase> phases =
+                    offer.getPricingPhases().getPricingPhaseList();
+            if (phases.isEmpty()) {
+                return 0;
+            }
+
+            ProductDetails.PricingPhase base = phases.get(phases.size() - 1);
+            long period = base.getRecurrenceMode() == ProductDetails.RecurrenceMode.NON_RECURRING
+                    ? getMillis(base.getBillingPeriod()) : 0;
+            if (period <= 0) {
+                return 0;
+            }
+
+            prepaid = Math.max(prepaid, period);
+        }
+
+        return prepaid;
+    }
+
+    /**
+     * Returns the expiry time for the supplied purchase.
+     *
+     * @param purchase The purchase to be used.
+     *
+     * @return The expiry time for the supplied purchase, otherwise {@link #UNKNOWN} if it
+     *         does not expire.
+     */
+    public long getExpiryTime(@NonNull Purchase purchase) {
+        long expiry = UNKNOWN;
+        for (String productId : purchase.getProducts()) {
+            Long rental = mRentals.get(productId);
+            if (rental != null) {
+                expiry = min(expiry, purchase.getPurchaseTime() + rental);
+            }
+
+            Long prepaid = mPrepaid.get(productId);
+            if (prepaid != null && !purchase.isAutoRenewing()) {
+                expiry = min(expiry, purchase.getPurchaseTime() + prepaid);
+            }
+        }
+
+        return expiry;
+    }
+
+    /**
+     * Returns the purchases which have not expired till the supplied time.
+     * <p>It should be used before updating the entitlements, so that a lapsed purchase
+     * still returned by the billing service is not granted again.
+     *
+     * @param purchases The purchases to be filtered.
+     * @param now The current time in milliseconds.
+     *
+     * @return The purchases which have not expired, the same list if none has expired.
+     */
+    public @Nullable List<Purchase> getActivePurchases(
+            @Nullable List<Purchase> purchases, long now) {
+        if (purchases == null) {
+            return null;
+        }
+
+        List<Purchase> active = null;
+        for (int i = 0; i < purchases.size(); i++) {
+            Purchase purchase = purchases.get(i);
+            long expiry = getExpiryTime(purchase);
+            boolean expired = expiry != UNKNOWN && expiry <= now;
+
+            if (expired && active == null) {
+                active = new ArrayList<>(purchases.subList(0, i));
+            } else if (!expired && active != null) {
+                active.add(purchase);
+            }
+        }
+
+        return active != null ? active : purchases;
+    }
+
+    /**
+     * Returns the minimum of the supplied times by ignoring the unknown time.
+     *
+     * @param first The first time.
+     * @param second The second time.
+     *
+     * @return The minimum of the supplied times.
+     */
+    private static long min(long first, long second) {
+        return first == UNKNOWN ? second : Math.min(first, second);
+    }
+
+    /**
+     * Track the expiry of the supplied purchases.
+     * <p>Only the purchased state will be tracked.
+     *
+     * @param purchases The purchases to be tracked.
+     */
+    public void onPurchasesUpdated(@Nullable List<Purchase> purchases) {
+        if (purchases == null) {
+            return;
+        }
+
+        for (Purchase purchase : purchases) {
+            if (purchase.getPurchaseState() != Purchase.PurchaseState.PURCHASED) {
+                continue;
+            }
+
+            long expiry = getExpiryTime(purchase);
+            if (expiry != UNKNOWN) {
+                track(purchase.getPurchaseToken(), purchase.getProducts(), expiry);
+            }
+        }
+    }
+
+    /**
+     * Track the expiry for the supplied key and products.
+     * <p>An existing entry with the same key will be replaced.
+     *
+     * @param key The unique key like the purchase token.
+     * @param productIds The products to be lapsed on expiry.
+     * @param expiry The expiry time in milliseconds.
+     */
+    public void track(@NonNull String key, @NonNull List<String> productIds, long expiry) {
+        Entry entry = mEntries.get(key);
+        if (entry != null) {
+            if (entry.expiry == expiry) {
+                return;
+            }
+
+            entry.cancelled = true;
+        } else {
+            for (String productId : productIds) {
+                Integer count = mActive.get(productId);
+                mActive.put(productId, count != null ? count + 1 : 1);
+            }
+        }
+
+        entry = new Entry(key, new ArrayList<>(productIds), expiry);
+        mEntries.put(key, entry);
+        mQueue.add(entry);
+    }
+
+    /**
+     * Returns the number of tracked entitlements.
+     *
+     * @return The number of tracked entitlements.
+     */
+    public int size() {
+        return mEntries.size();
+    }
+
+    /**
+     * Returns the earliest expiry time to schedule an alarm.
+     *
+     * @return The earliest expiry time, otherwise {@link #UNKNOWN} if nothing is tracked.
+     */
+    public long getNextExpiryTime() {
+        Entry entry = mQueue.peek();
+        while (entry != null && entry.cancelled) {
+            mQueue.poll();
+            entry = mQueue.peek();
+        }
+
+        return entry != null ? entry.expiry : UNKNOWN;
+    }
+
+    /**
+     * Remove all the entries expired till the supplied time.
+     *
+     * @param now The current time in milliseconds.
+     *
+     * @return The products without any active entitlement after the expiry.
+     */
+    public @NonNull List<String> expire(long now) {
+        List<String> lapsed = null;
+        Entry entry;
+
+        while ((entry = mQueue.peek()) != null && (entry.cancelled || entry.expiry <= now)) {
+            mQueue.poll();
+            if (entry.cancelled) {
+                continue;
+            }
+
+            mEntries.remove(entry.key);
+            for (String productId : entry.productIds) {
+                Integer count = mActive.get(productId);
+                if (count == null || count <= 1) {
+                    mActive.remove(productId);
+
+                    if (lapsed == null) {
+                        lapsed = new ArrayList<>();
+                    }
+
+                    lapsed.add(productId);
+                } else {
+                    mActive.put(productId, count - 1);
+                }
+            }
+        }
+
+        return lapsed != null ? lapsed : Collections.<String>emptyList();
+    }
+
+    /**
+     * Clear all the tracked entries.
+     */
+    public void clear() {
+        mEntries.clear();
+        mActive.clear();
+        mQueue.clear();
+    }
+
+    /**
+     * A class to hold the expiry entry.
+     */
+    private static final class Entry implements Comparable<Entry> {
+
+        /**
+         * Unique key for this entry.
+         */
+        final String key;
+
+        /**
+         * Products to be lapsed on expiry.
+         */
+        final List<String> productIds;
+
+        /**
+         * Expiry time in milliseconds.
+         */
+        final long expiry;
+
+        /**
+         * {@code true} if this entry has been replaced.
+         */
+        boolean cancelled;
+
+        /**
+         * Constructor to initialize an object of this class.
+         *
+         * @param key The unique key for this entry.
+         * @param productIds The products to be lapsed on expiry.
+         * @param expiry The expiry time in milliseconds.
+         */
+        Entry(@NonNull String key, @NonNull List<String> productIds, long expiry) {
+            this.key = key;
+            this.productIds = productIds;
+            this.expiry = expiry;
+        }
+
+        @Override
+        public int compareTo(@NonNull Entry entry) {
+            return Long.compare(expiry, entry.expiry);
+        }
+    }
+}
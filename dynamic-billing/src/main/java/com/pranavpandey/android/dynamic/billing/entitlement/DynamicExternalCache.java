@@ -0,0 +1,280 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.entitlement;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.core.content.ContextCompat;
+
+import com.pranavpandey.android.dynamic.billing.listener.DynamicExternalListener;
+import com.pranavpandey.android.dynamic.billing.model.factory.External;
+import com.pranavpandey.android.dynamic.billing.util.DynamicBillingUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A cache to memoize the active state of the {@link External} products per product.
+ * <p>The cached state is invalidated on the package added, removed and replaced broadcasts
+ * and the tracked products are checked again in a single background pass.
+ */
+public class DynamicExternalCache {
+
+    /**
+     * Context to check the external products.
+     */
+    private final Context mContext;
+
+    /**
+     * Main thread handler to publish the results.
+     */
+    private final Handler mHandler;
+
+    /**
+     * Map to hold the active state mapped with the package name and product id.
+     */
+    private final Map<String, Boolean> mActive;
+
+    /**
+     * Version of the cache incremented on each invalidation to discard the in-flight checks.
+     */
+    private final AtomicInteger mVersion;
+
+    /**
+     * Receiver to invalidate the cache on package changes.
+     */
+    private final BroadcastReceiver mPackageReceiver;
+
+    /**
+     * Tracked external products to be checked again on package changes.
+     */
+    private volatile List<External> mProducts;
+
+    /**
+     * Listener to receive the active state of the tracked products.
+     */
+    private volatile DynamicExternalListener mListener;
+
+    /**
+     * {@code true} if the package receiver is registered.
+     */
+    private boolean mRegistered;
+
+    /**
+     * Constructor to initialize an object of this class.
+     *
+     * @param context The context to check the external products.
+     */
+    public DynamicExternalCache(@NonNull Context context) {
+        this.mContext = context.getApplicationContext() != null
+                ? context.getApplicationContext() : context;
+        this.mHandler = new Handler(Looper.getMainLooper());
+        this.mActive = new ConcurrentHashMap<>();
+        this.mVersion = new AtomicInteger();
+        this.mProducts = Collections.emptyList();
+        this.mPackageReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                if (intent.getData() != null) {
+                    invalidate(intent.getData().getSchemeSpecificPart());
+                }
+            }
+        };
+    }
+
+    /**
+     * Register the receiver to invalidate the cache on package changes.
+     */
+    @MainThread
+    public void register() {
+        if (mRegistered) {
+            return;
+        }
+
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(Intent.ACTION_PACKAGE_ADDED);
+        filter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+        filter.addAction(Intent.ACTION_PACKAGE_REPLACED);
+        filter.addDataScheme("package");
+
+        ContextCompat.registerReceiver(mContext, mPackageReceiver,
+                filter, ContextCompat.RECEIVER_NOT_EXPORTED);
+        mRegistered = true;
+    }
+
+    /**
+     * Unregister the receiver to invalidate the cache on package changes.
+     */
+    @MainThread
+    public void unregister() {
+        if (!mRegistered) {
+            return;
+        }
+
+        mContext.unregisterReceiver(mPackageReceiver);
+        mRegistered = false;
+    }
+
+    /**
+     * Returns the key to memoize the active state of the supplied external product.
+     *
+     * @param product The external product to get the key.
+     *
+     * @return The key to memoize the active state of the supplied external product.
+     */
+    private static @NonNull String getKey(@NonNull External product) {
+        return product.getPackageName() + "/" + product.getId();
+    }
+
+    /**
+     * Returns whether the supplied external product is active.
+     * <p>The state is memoized per product, so the first call may query the other app.
+     * It will not be memoized if the cache is invalidated while checking the product.
+     *
+     * @param product The external product to be checked.
+     *
+     * @return {@code true} if the supplied external product is active.
+     */
+    @WorkerThread
+    public boolean isActive(@NonNull External product) {
+        String key = getKey(product);
+        Boolean active = mActive.get(key);
+        if (active == null) {
+            int version = mVersion.get();
+            active = product.isActive(mContext);
+            mActive.put(key, active);
+
+            if (version != mVersion.get()) {
+                mActive.remove(key);
+            }
+        }
+
+        return active;
+    }
+
+    /**
+     * Returns the memoized active state for the supplied external product.
+     *
+     * @param product The external product to be checked.
+     *
+     * @return The memoized active state, otherwise {@code null} if it has not been checked.
+     */
+    public @Nullable Boolean getCached(@NonNull External product) {
+        return mActive.get(getKey(product));
+    }
+
+    /**
+     * Invalidate the memoized state for the supplied package and check the tracked
+     * products of that package again.
+     *
+     * @param packageName The package name to be invalidated.
+     */
+    public void invalidate(@Nullable String packageName) {
+        if (packageName == null) {
+            return;
+        }
+
+        mVersion.incrementAndGet();
+        String prefix = packageName + "/";
+        Iterator<String> iterator = mActive.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().startsWith(prefix)) {
+                iterator.remove();
+            }
+        }
+
+        List<External> affected = new ArrayList<>();
+        for (External product : mProducts) {
+            if (packageName.equals(product.getPackageName())) {
+                affected.add(product);
+            }
+        }
+
+        DynamicExternalListener listener = mListener;
+        if (!affected.isEmpty() && listener != null) {
+            checkAsync(affected, listener);
+        }
+    }
+
+    /**
+     * Invalidate all the memoized states.
+     */
+    public void invalidate() {
+        mVersion.incrementAndGet();
+        mActive.clear();
+    }
+
+    /**
+     * Track the supplied external products and check them in a single background pass.
+     * <p>They will be checked again whenever their package changes.
+     *
+     * @param products The external products to be tracked.
+     * @param listener The listener to receive the active states.
+     */
+    @MainThread
+    public void track(@Nullable List<? extends External> products,
+            @Nullable DynamicExternalListener listener) {
+        mProducts = products != null ? Collections.unmodifiableList(
+                new ArrayList<External>(products)) : Collections.<External>emptyList();
+        mListener = listener;
+
+        if (listener != null) {
+            checkAsync(mProducts, listener);
+        }
+    }
+
+    /**
+     * Check the supplied external products in a single background pass.
+     *
+     * @param products The external products to be checked.
+     * @param listener The listener to receive the active states on the main thread.
+     */
+    public void checkAsync(final @NonNull List<? extends External> products,
+            final @NonNull DynamicExternalListener listener) {
+        final List<External> snapshot = new ArrayList<External>(products);
+        DynamicBillingUtils.getExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                final boolean[] active = new boolean[snapshot.size()];
+                for (int i = 0; i < snapshot.size(); i++) {
+                    active[i] = isActive(snapshot.get(i));
+                }
+
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onExternalChecked(snapshot, active);
+                    }
+                });
+            }
+        });
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.listener;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+
+import com.pranavpandey.android.dynamic.billing.model.factory.External;
+
+import java.util.List;
+
+/**
+ * An interface to receive the active state of the external products checked in
+ * the background.
+ */
+public interface DynamicExternalListener {
+
+    /**
+     * This method will be called on the main thread after checking the external products.
+     *
+     * @param products The checked external products.
+     * @param active The active state for each checked product.
+     */
+    @MainThread
+    void onExternalChecked(@NonNull List<External> products, @NonNull boolean[] active);
+}
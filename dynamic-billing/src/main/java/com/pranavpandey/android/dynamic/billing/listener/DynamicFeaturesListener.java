@@ -0,0 +1,35 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.listener;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.Nullable;
+
+/**
+ * An interface to receive the feature string built in the background.
+ */
+public interface DynamicFeaturesListener {
+
+    /**
+     * This method will be called on the main thread after building the feature string.
+     *
+     * @param featuresString The built feature string, it will be a
+     *        {@link androidx.core.text.PrecomputedTextCompat} if the text params were supplied.
+     */
+    @MainThread
+    void onFeaturesStringBuilt(@Nullable CharSequence featuresString);
+}
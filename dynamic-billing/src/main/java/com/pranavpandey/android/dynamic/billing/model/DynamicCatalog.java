@@ -0,0 +1,461 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.model;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.pranavpandey.android.dynamic.billing.R;
+import com.pranavpandey.android.dynamic.billing.model.base.DynamicFeature;
+import com.pranavpandey.android.dynamic.billing.model.base.DynamicProduct;
+import com.pranavpandey.android.dynamic.billing.model.factory.Lifetime;
+import com.pranavpandey.android.dynamic.billing.model.factory.Premium;
+import com.pranavpandey.android.dynamic.billing.model.factory.plan.HalfYearly;
+import com.pranavpandey.android.dynamic.billing.model.factory.plan.Monthly;
+import com.pranavpandey.android.dynamic.billing.model.factory.plan.Weekly;
+import com.pranavpandey.android.dynamic.billing.model.factory.plan.Yearly;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A catalog of products and features loaded from a JSON asset.
+ * <p>The lookup indices are built in a single pass while loading, but the features are
+ * materialized only when they are accessed for the first time. Resource names are
+ * resolved to their ids once and shared among all the features.
+ *
+ * <p>Each catalog creates its own products, so the features attached to them will not be
+ * visible to the other catalogs or the products created by the app.
+ *
+ * <pre>
+ * {
+ *   "products": [
+ *     { "id": "subs_app_premium", "type": "subs" },
+ *     { "id": "inapp_app_lifetime", "type": "inapp", "subscriptions": false }
+ *   ],
+ *   "features": [
+ *     { "id": "feature_themes", "icon": "ic_themes", "title": "themes",
+ *       "subtitle": "themes_desc", "products": [ "subs_app_premium" ] }
+ *   ]
+ * }
+ * </pre>
+ */
+public class DynamicCatalog {
+
+    /**
+     * JSON key for the products.
+     */
+    public static final String KEY_PRODUCTS = "products";
+
+    /**
+     * JSON key for the features.
+     */
+    public static final String KEY_FEATURES = "features";
+
+    /**
+     * JSON key for the id.
+     */
+    public static final String KEY_ID = "id";
+
+    /**
+     * JSON key for the product type.
+     */
+    public static final String KEY_TYPE = "type";
+
+    /**
+     * JSON key to enable subscriptions along with a product.
+     */
+    public static final String KEY_SUBSCRIPTIONS = "subscriptions";
+
+    /**
+     * JSON key for the icon drawable resource name.
+     */
+    public static final String KEY_ICON = "icon";
+
+    /**
+     * JSON key for the title string resource name.
+     */
+    public static final String KEY_TITLE = "title";
+
+    /**
+     * JSON key for the subtitle string resource name.
+     */
+    public static final String KEY_SUBTITLE = "subtitle";
+
+    /**
+     * JSON key for the enabled state.
+     */
+    public static final String KEY_ENABLED = "enabled";
+
+    /**
+     * Resource type for the drawables.
+     */
+    private static final String RES_DRAWABLE = "drawable";
+
+    /**
+     * Resource type for the strings.
+     */
+    private static final String RES_STRING = "string";
+
+    /**
+     * Context to resolve the resources.
+     */
+    private final Context mContext;
+
+    /**
+     * Map to hold the products mapped with their id.
+     */
+    private final Map<String, DynamicProduct> mProducts;
+
+    /**
+     * Map to hold the feature indexes mapped with their id.
+     */
+    private final Map<String, Integer> mFeatureIndexes;
+
+    /**
+     * Id for each feature index.
+     */
+    private final String[] mFeatureIds;
+
+    /**
+     * Raw definition for each feature index.
+     */
+    private final JSONObject[] mDefinitions;
+
+    /**
+     * Materialized feature for each feature index.
+     */
+    private final DynamicFeature[] mFeatures;
+
+    /**
+     * Map to hold the feature indexes mapped with their product id.
+     */
+    private final Map<String, List<Integer>> mProductFeatures;
+
+    /**
+     * Ids of the products for which the features have been attached.
+     */
+    private final Set<String> mAttached;
+
+    /**
+     * Map to hold the resolved resource ids mapped with their type and name.
+     */
+    private final Map<String, Integer> mResources;
+
+    /**
+     * Constructor to initialize an object of this class.
+     *
+     * @param context The context to resolve the resources.
+     * @param catalog The JSON catalog to be indexed.
+     *
+     * @throws JSONException If the catalog is not valid.
+     */
+    protected DynamicCatalog(@NonNull Context context, @NonNull JSONObject catalog)
+            throws JSONException {
+        this.mContext = context.getApplicationContext() != null
+                ? context.getApplicationContext() : context;
+        this.mProducts = new LinkedHashMap<>();
+        this.mFeatureIndexes = new LinkedHashMap<>();
+        this.mProductFeatures = new LinkedHashMap<>();
+        this.mAttached = new HashSet<>();
+        this.mResources = new HashMap<>();
+
+        JSONArray products = catalog.optJSONArray(KEY_PRODUCTS);
+        if (products != null) {
+            for (int i = 0; i < products.length(); i++) {
+                JSONObject product = products.getJSONObject(i);
+                String id = product.getString(KEY_ID);
+                mProducts.put(id, createProduct(id,
+                        product.optString(KEY_TYPE, DynamicProduct.Type.UNKNOWN),
+                        product.optBoolean(KEY_SUBSCRIPTIONS, true)));
+            }
+        }
+
+        JSONArray features = catalog.optJSONArray(KEY_FEATURES);
+        int size = features != null ? features.length() : 0;
+        this.mFeatureIds = new String[size];
+        this.mDefinitions = new JSONObject[size];
+        this.mFeatures = new DynamicFeature[size];
+
+        for (int i = 0; i < size; i++) {
+            JSONObject feature = features.getJSONObject(i);
+            mFeatureIds[i] = feature.getString(KEY_ID);
+            mDefinitions[i] = feature;
+            mFeatureIndexes.put(mFeatureIds[i], i);
+
+            JSONArray ids = feature.optJSONArray(KEY_PRODUCTS);
+            if (ids == null) {
+                continue;
+            }
+
+            for (int j = 0; j < ids.length(); j++) {
+                List<Integer> indexes = mProductFeatures.get(ids.getString(j));
+                if (indexes == null) {
+                    indexes = new ArrayList<>();
+                    mProductFeatures.put(ids.getString(j), indexes);
+                }
+
+                indexes.add(i);
+            }
+        }
+    }
+
+    /**
+     * Load a catalog from the supplied JSON asset.
+     *
+     * @param context The context to read the asset and resolve the resources.
+     * @param asset The path of the JSON asset.
+     *
+     * @return The catalog loaded from the supplied asset.
+     *
+     * @throws IOException If the asset cannot be read.
+     * @throws JSONException If the asset is not a valid catalog.
+     */
+    public static @NonNull DynamicCatalog load(@NonNull Context context,
+            @NonNull String asset) throws IOException, JSONException {
+        InputStream inputStream = context.getAssets().open(asset);
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(
+                    Math.max(inputStream.available(), 1024));
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+
+            return parse(context, outputStream.toString("UTF-8"));
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * Parse a catalog from the supplied JSON string.
+     *
+     * @param context The context to resolve the resources.
+     * @param json The JSON string to be parsed.
+     *
+     * @return The catalog parsed from the supplied JSON string.
+     *
+     * @throws JSONException If the JSON string is not a valid catalog.
+     */
+    public static @NonNull DynamicCatalog parse(@NonNull Context context,
+            @NonNull String json) throws JSONException {
+        return new DynamicCatalog(context, new JSONObject(json));
+    }
+
+    /**
+     * Create a product for the supplied values.
+     * <p>Known factory ids will return their factory products, a new instance must be
+     * returned every time as the features of this catalog will be attached to it.
+     *
+     * @param id The id of the product.
+     * @param type The type of the product.
+     * @param subscriptions {@code false} to disable subscriptions along with the product.
+     *
+     * @return The product for the supplied values.
+     */
+    protected @NonNull DynamicProduct createProduct(@NonNull String id,
+            @DynamicProduct.Type String type, boolean subscriptions) {
+        switch (id) {
+            case Premium.ID:
+                return new Premium();
+            case Lifetime.ID:
+                return new Lifetime();
+            case Weekly.ID:
+                return new Weekly();
+            case Monthly.ID:
+                return new Monthly();
+            case HalfYearly.ID:
+                return new HalfYearly();
+            case Yearly.ID:
+                return new Yearly();
+            default:
+                return new DynamicProduct(id, type, subscriptions);
+        }
+    }
+
+    /**
+     * Returns the resource id for the supplied name and type.
+     * <p>Each resource name is resolved only once.
+     *
+     * @param name The name of the resource.
+     * @param type The type of the resource.
+     * @param fallback The fallback resource id if the name is empty or not found.
+     *
+     * @return The resource id for the supplied name and type.
+     */
+    protected int getResource(@Nullable String name, @NonNull String type, int fallback) {
+        if (name == null || name.isEmpty()) {
+            return fallback;
+        }
+
+        String key = type + "/" + name;
+        Integer resource = mResources.get(key);
+        if (resource == null) {
+            resource = mContext.getResources().getIdentifier(
+                    name, type, mContext.getPackageName());
+            mResources.put(key, resource);
+        }
+
+        return resource != 0 ? resource : fallback;
+    }
+
+    /**
+     * Materialize the feature for the supplied index.
+     *
+     * @param index The index of the feature.
+     *
+     * @return The materialized feature for the supplied index.
+     */
+    private @NonNull DynamicFeature materialize(int index) {
+        if (mFeatures[index] != null) {
+            return mFeatures[index];
+        }
+
+        JSONObject definition = mDefinitions[index];
+        JSONArray ids = definition.optJSONArray(KEY_PRODUCTS);
+        List<DynamicProduct> products = new ArrayList<>();
+        if (ids != null) {
+            for (int i = 0; i < ids.length(); i++) {
+                DynamicProduct product = mProducts.get(ids.optString(i));
+                if (product != null) {
+                    products.add(product);
+                }
+            }
+        }
+
+        mFeatures[index] = new DynamicFeature(mFeatureIds[index],
+                getResource(definition.optString(KEY_ICON, null),
+                        RES_DRAWABLE, R.drawable.adb_ic_feature),
+                getResource(definition.optString(KEY_TITLE, null),
+                        RES_STRING, R.string.adb_product),
+                getResource(definition.optString(KEY_SUBTITLE, null),
+                        RES_STRING, DynamicFeature.UNKNOWN_RES),
+                Collections.unmodifiableList(products),
+                definition.optBoolean(KEY_ENABLED, false));
+        mDefinitions[index] = null;
+
+        return mFeatures[index];
+    }
+
+    /**
+     * Returns the number of features in this catalog.
+     *
+     * @return The number of features in this catalog.
+     */
+    public int getFeatureCount() {
+        return mFeatures.length;
+    }
+
+    /**
+     * Returns the feature for the supplied id.
+     *
+     * @param id The id of the feature.
+     *
+     * @return The feature for the supplied id, otherwise {@code null} if it does not exist.
+     */
+    public synchronized @Nullable DynamicFeature getFeature(@Nullable String id) {
+        Integer index = mFeatureIndexes.get(id);
+        return index != null ? materialize(index) : null;
+    }
+
+    /**
+     * Returns all the features in this catalog.
+     * <p>It will materialize all the features.
+     *
+     * @return All the features in this catalog.
+     */
+    public synchronized @NonNull List<DynamicFeature> getFeatures() {
+        List<DynamicFeature> features = new ArrayList<>(mFeatures.length);
+        for (int i = 0; i < mFeatures.length; i++) {
+            features.add(materialize(i));
+        }
+
+        return features;
+    }
+
+    /**
+     * Returns the product for the supplied id along with its features.
+     * <p>It will materialize only the features offered by this product.
+     *
+     * @param id The id of the product.
+     *
+     * @return The product for the supplied id, otherwise {@code null} if it does not exist.
+     */
+    public synchronized @Nullable DynamicProduct getProduct(@Nullable String id) {
+        DynamicProduct product = mProducts.get(id);
+        if (product == null || mAttached.contains(id)) {
+            return product;
+        }
+
+        List<Integer> indexes = mProductFeatures.get(id);
+        if (indexes != null) {
+            for (int index : indexes) {
+                product.addFeature(materialize(index));
+            }
+        }
+
+        mAttached.add(id);
+        return product;
+    }
+
+    /**
+     * Returns all the products of the supplied type along with their features.
+     * <p>The products are returned in the same order as they are defined in the catalog.
+     *
+     * @param type The type of the products, {@code null} for all the products.
+     *
+     * @return All the products of the supplied type.
+     */
+    public synchronized @NonNull List<DynamicProduct> getProducts(
+            @Nullable @DynamicProduct.Type String type) {
+        List<DynamicProduct> products = new ArrayList<>();
+        for (DynamicProduct product : mProducts.values()) {
+            if (type == null || type.equals(product.getType())) {
+                products.add(getProduct(product.getId()));
+            }
+        }
+
+        return products;
+    }
+
+    /**
+     * Returns the ids of all the features in this catalog.
+     *
+     * @return The ids of all the features in this catalog.
+     */
+    public @NonNull List<String> getFeatureIds() {
+        return Collections.unmodifiableList(Arrays.asList(mFeatureIds));
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.android.billingclient.api.ProductDetails;
+import com.pranavpandey.android.dynamic.billing.model.base.DynamicProduct;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable class to represent the display information for a product offer.
+ *
+ * @see com.pranavpandey.android.dynamic.billing.util.DynamicBillingUtils#getOffers(
+ *      android.content.Context, com.android.billingclient.api.QueryProductDetailsResult)
+ */
+public final class DynamicOffer {
+
+    /**
+     * Product details for this offer.
+     */
+    private final ProductDetails productDetails;
+
+    /**
+     * Base plan id for this offer, {@code null} for the one-time offers.
+     */
+    private final @Nullable String basePlanId;
+
+    /**
+     * Offer id for this offer, {@code null} for the base offers.
+     */
+    private final @Nullable String offerId;
+
+    /**
+     * Offer token to launch the billing flow.
+     */
+    private final @Nullable String offerToken;
+
+    /**
+     * Tags associated with this offer.
+     */
+    private final List<String> offerTags;
+
+    /**
+     * Details including all the pricing phases.
+     */
+    private final @Nullable String details;
+
+    /**
+     * Details excluding the base pricing phase.
+     */
+    private final @Nullable String detailsOffer;
+
+    /**
+     * Details for the base pricing phase.
+     */
+    private final @Nullable String detailsBase;
+
+    /**
+     * Details for the offer validity.
+     */
+    private final @Nullable String detailsValidity;
+
+    /**
+     * Details for the rental validity.
+     */
+    private final @Nullable String detailsRental;
+
+    /**
+     * Constructor to initialize an object of this class.
+     *
+     * @param productDetails The product details for this offer.
+     * @param basePlanId The base plan id for this offer.
+     * @param offerId The offer id for this offer.
+     * @param offerToken The offer token to launch the billing flow.
+     * @param offerTags The tags associated with this offer.
+     * @param details The details including all the pricing phases.
+     * @param detailsOffer The details excluding the base pricing phase.
+     * @param detailsBase The details for the base pricing phase.
+     * @param detailsValidity The details for the offer validity.
+     * @param detailsRental The details for the rental validity.
+     */
+    public DynamicOffer(@NonNull ProductDetails productDetails, @Nullable String basePlanId,
+            @Nullable String offerId, @Nullable String offerToken,
+            @Nullable List<String> offerTags, @Nullable String details,
+            @Nullable String detailsOffer, @Nullable String detailsBase,
+            @Nullable String detailsValidity, @Nullable String detailsRental) {
+        this.productDetails = productDetails;
+        this.basePlanId = basePlanId;
+        this.offerId = offerId;
+        this.offerToken = offerToken;
+        this.offerTags = offerTags != null ? Collections.unmodifiableList(offerTags)
+                : Collections.<String>emptyList();
+        this.details = details;
+        this.detailsOffer = detailsOffer;
+        this.detailsBase = detailsBase;
+        this.detailsValidity = detailsValidity;
+        this.detailsRental = detailsRental;
+    }
+
+    /**
+     * Returns the product details for this offer.
+     *
+     * @return The product details for this offer.
+     */
+    public @NonNull ProductDetails getProductDetails() {
+        return productDetails;
+    }
+
+    /**
+     * Returns the product id for this offer.
+     *
+     * @return The product id for this offer.
+     */
+    public @NonNull String getProductId() {
+        return productDetails.getProductId();
+    }
+
+    /**
+     * Returns the product type for this offer.
+     *
+     * @return The product type for this offer.
+     */
+    public @DynamicProduct.Type String getProductType() {
+        return productDetails.getProductType();
+    }
+
+    /**
+     * Returns the base plan id for this offer.
+     *
+     * @return The base plan id for this offer, {@code null} for the one-time offers.
+     */
+    public @Nullable String getBasePlanId() {
+        return basePlanId;
+    }
+
+    /**
+     * Returns the offer id for this offer.
+     *
+     * @return The offer id for this offer, {@code null} for the base offers.
+     */
+    public @Nullable String getOfferId() {
+        return offerId;
+    }
+
+    /**
+     * Returns the offer token to launch the billing flow.
+     *
+     * @return The offer token to launch the billing flow.
+     */
+    public @Nullable String getOfferToken() {
+        return offerToken;
+    }
+
+    /**
+     * Returns the tags associated with this offer.
+     *
+     * @return The tags associated with this offer.
+     */
+    public @NonNull List<String> getOfferTags() {
+        return offerTags;
+    }
+
+    /**
+     * Returns the details including all the pricing phases.
+     *
+     * @return The details including all the pricing phases.
+     */
+    public @Nullable String getDetails() {
+        return details;
+    }
+
+    /**
+     * Returns the details excluding the base pricing phase.
+     *
+     * @return The details excluding the base pricing phase.
+     */
+    public @Nullable String getDetailsOffer() {
+        return detailsOffer;
+    }
+
+    /**
+     * Returns the details for the base pricing phase.
+     *
+     * @return The details for the base pricing phase.
+     */
+    public @Nullable String getDetailsBase() {
+        return detailsBase;
+    }
+
+    /**
+     * Returns the details for the offer validity.
+     *
+     * @return The details for the offer validity.
+     */
+    public @Nullable String getDetailsValidity() {
+        return detailsValidity;
+    }
+
+    /**
+     * Returns the details for the rental validity.
+     *
+     * @return The details for the rental validity.
+     */
+    public @Nullable String getDetailsRental() {
+        return detailsRental;
+    }
+}
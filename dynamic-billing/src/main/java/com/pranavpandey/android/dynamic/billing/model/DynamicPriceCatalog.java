@@ -0,0 +1,517 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.android.billingclient.api.ProductDetails;
+import com.android.billingclient.api.QueryProductDetailsResult;
+import com.pranavpandey.android.dynamic.billing.model.base.DynamicProduct;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable and compact projection of the product details to keep large catalogs
+ * in memory.
+ * <p>It stores the interned ids along with the parallel primitive arrays for the offers
+ * and their pricing phases, so that the raw {@link ProductDetails} objects can be dropped
+ * once it has been built.
+ *
+ * <p>Offers are addressed by their index from {@code 0} to {@link #getOfferCount()} and
+ * the pricing phases of an offer are stored from {@link #getPhaseStart(int)} to
+ * {@link #getPhaseEnd(int)}. One-time offers have a single non recurring phase with the
+ * rental period, if any.
+ */
+public final class DynamicPriceCatalog {
+
+    /**
+     * Constant value for the unknown period unit or index.
+     */
+    public static final int UNKNOWN = -1;
+
+    /**
+     * Empty catalog without any product.
+     */
+    public static final DynamicPriceCatalog EMPTY =
+            new DynamicPriceCatalog(new ArrayList<ProductDetails>());
+
+    /**
+     * Interned product ids.
+     */
+    private final String[] productIds;
+
+    /**
+     * Interned product types.
+     */
+    private final String[] productTypes;
+
+    /**
+     * Interned currency codes.
+     */
+    private final String[] currencies;
+
+    /**
+     * Product index for each offer.
+     */
+    private final int[] offerProducts;
+
+    /**
+     * Interned base plan id for each offer, {@code null} for the one-time offers.
+     */
+    private final String[] basePlanIds;
+
+    /**
+     * Interned offer id for each offer, {@code null} for the base offers.
+     */
+    private final String[] offerIds;
+
+    /**
+     * Offer token for each offer.
+     */
+    private final String[] offerTokens;
+
+    /**
+     * Start index of the pricing phases for each offer, followed by the total number of
+     * pricing phases.
+     */
+    private final int[] phaseStarts;
+
+    /**
+     * Price in micros for each pricing phase.
+     */
+    private final long[] phasePrices;
+
+    /**
+     * Currency index for each pricing phase.
+     */
+    private final int[] phaseCurrencies;
+
+    /**
+     * Period unit for each pricing phase, {@link #UNKNOWN} if there is no period.
+     */
+    private final int[] phaseUnits;
+
+    /**
+     * Period count for each pricing phase.
+     */
+    private final int[] phaseCounts;
+
+    /**
+     * Billing cycle count for each pricing phase.
+     */
+    private final int[] phaseCycles;
+
+    /**
+     * Recurrence mode for each pricing phase.
+     */
+    private final int[] phaseModes;
+
+    /**
+     * Constructor to initialize an object of this class.
+     *
+     * @param productDetailsList The products to build this catalog.
+     */
+    private DynamicPriceCatalog(@NonNull List<ProductDetails> productDetailsList) {
+        int products = productDetailsList.size();
+        int offers = 0;
+        int phases = 0;
+
+        for (ProductDetails productDetails : productDetailsList) {
+            if (productDetails.getSubscriptionOfferDetails() != null) {
+                for (ProductDetails.SubscriptionOfferDetails offer
+                        : productDetails.getSubscriptionOfferDetails()) {
+                    offers++;
+                    phases += offer.getPricingPhases().getPricingPhaseList().size();
+                }
+            }
+
+            if (productDetails.getOneTimePurchaseOfferDetailsList() != null) {
+                offers += productDetails.getOneTimePurchaseOfferDetailsList().size();
+                phases += productDetails.getOneTimePurchaseOfferDetailsList().size();
+            }
+        }
+
+        this.productIds = new String[products];
+        this.productTypes = new String[products];
+        this.offerProducts = new int[offers];
+        this.basePlanIds = new String[offers];
+        this.offerIds = new String[offers];
+        this.offerTokens = new String[offers];
+        this.phaseStarts = new int[offers + 1];
+        this.phasePrices = new long[phases];
+        this.phaseCurrencies = new int[phases];
+        this.phaseUnits = new int[phases];
+        this.phaseCounts = new int[phases];
+        this.phaseCycles = new int[phases];
+        this.phaseModes = new int[phases];
+
+        List<String> currencies = new ArrayList<>();
+        int offer = 0;
+        int phase = 0;
+
+        for (int product = 0; product < products; product++) {
+            ProductDetails productDetails = productDetailsList.get(product);
+            productIds[product] = productDetails.getProductId().intern();
+            productTypes[product] = productDetails.getProductType().intern();
+
+            if (productDetails.getSubscriptionOfferDetails() != null) {
+                for (ProductDetails.SubscriptionOfferDetails details
+                        : productDetails.getSubscriptionOfferDetails()) {
+                    offerProducts[offer] = product;
+                    basePlanIds[offer] = intern(details.getBasePlanId());
+                    offerIds[offer] = intern(details.getOfferId());
+                    offerTokens[offer] = details.getOfferToken();
+                    phaseStarts[offer++] = phase;
+
+                    for (ProductDetails.PricingPhase pricingPhase
+                            : details.getPricingPhases().getPricingPhaseList()) {
+                        setPhase(phase++, pricingPhase.getPriceAmountMicros(),
+                                indexOf(currencies, pricingPhase.getPriceCurrencyCode()),
+                                BillingPeriod.parse(pricingPhase.getBillingPeriod()),
+                                pricingPhase.getBillingCycleCount(),
+                                pricingPhase.getRecurrenceMode());
+                    }
+                }
+            }
+
+            if (productDetails.getOneTimePurchaseOfferDetailsList() != null) {
+                for (ProductDetails.OneTimePurchaseOfferDetails details
+                        : productDetails.getOneTimePurchaseOfferDetailsList()) {
+                    offerProducts[offer] = product;
+                    basePlanIds[offer] = null;
+                    offerIds[offer] = intern(details.getOfferId());
+                    offerTokens[offer] = details.getOfferToken();
+                    phaseStarts[offer++] = phase;
+
+                    setPhase(phase++, details.getPriceAmountMicros(),
+                            indexOf(currencies, details.getPriceCurrencyCode()),
+                            details.getRentalDetails() != null ? BillingPeriod.parse(
+                                    details.getRentalDetails().getRentalPeriod()) : null,
+                            1, ProductDetails.RecurrenceMode.NON_RECURRING);
+                }
+            }
+        }
+
+        this.phaseStarts[offers] = phase;
+        this.currencies = currencies.toArray(new String[0]);
+    }
+
+    /**
+     * Build a compact catalog from the supplied products.
+     *
+     * @param productDetailsList The products to build the catalog.
+     *
+     * @return The compact catalog for the supplied products.
+     */
+    public static @NonNull DynamicPriceCatalog from(
+            @Nullable List<ProductDetails> productDetailsList) {
+        if (productDetailsList == null || productDetailsList.isEmpty()) {
+            return EMPTY;
+        }
+
+        return new DynamicPriceCatalog(productDetailsList);
+    }
+
+    /**
+     * Build a compact catalog from the supplied product details result.
+     *
+     * @param result The product details result to build the catalog.
+     *
+     * @return The compact catalog for the supplied product details result.
+     */
+    public static @NonNull DynamicPriceCatalog from(@Nullable QueryProductDetailsResult result) {
+        return from(result != null ? result.getProductDetailsList() : null);
+    }
+
+    /**
+     * Set the values for a pricing phase.
+     *
+     * @param phase The index of the pricing phase.
+     * @param price The price in micros.
+     * @param currency The currency index.
+     * @param period The billing period, if any.
+     * @param cycles The billing cycle count.
+     * @param mode The recurrence mode.
+     */
+    private void setPhase(int phase, long price, int currency,
+            @Nullable BillingPeriod period, int cycles, int mode) {
+        phasePrices[phase] = price;
+        phaseCurrencies[phase] = currency;
+        phaseUnits[phase] = period != null ? period.getUnit() : UNKNOWN;
+        phaseCounts[phase] = period != null ? period.getCount() : 0;
+        phaseCycles[phase] = cycles;
+        phaseModes[phase] = mode;
+    }
+
+    /**
+     * Returns the interned string for the supplied value.
+     *
+     * @param value The value to be interned.
+     *
+     * @return The interned string for the supplied value.
+     */
+    private static @Nullable String intern(@Nullable String value) {
+        return value != null ? value.intern() : null;
+    }
+
+    /**
+     * Returns the index of the supplied currency code and add it if not present.
+     *
+     * @param currencies The list of currency codes.
+     * @param currency The currency code to be indexed.
+     *
+     * @return The index of the supplied currency code.
+     */
+    private static int indexOf(@NonNull List<String> currencies, @NonNull String currency) {
+        int index = currencies.indexOf(currency);
+        if (index == UNKNOWN) {
+            index = currencies.size();
+            currencies.add(currency.intern());
+        }
+
+        return index;
+    }
+
+    /**
+     * Returns the number of products in this catalog.
+     *
+     * @return The number of products in this catalog.
+     */
+    public int getProductCount() {
+        return productIds.length;
+    }
+
+    /**
+     * Returns the index of the supplied product id.
+     *
+     * @param productId The product id to be searched.
+     *
+     * @return The index of the supplied product id, otherwise {@link #UNKNOWN}.
+     */
+    public int indexOfProduct(@Nullable String productId) {
+        for (int i = 0; i < productIds.length; i++) {
+            if (productIds[i].equals(productId)) {
+                return i;
+            }
+        }
+
+        return UNKNOWN;
+    }
+
+    /**
+     * Returns the product id for the supplied product index.
+     *
+     * @param product The index of the product.
+     *
+     * @return The product id for the supplied product index.
+     */
+    public @NonNull String getProductId(int product) {
+        return productIds[product];
+    }
+
+    /**
+     * Returns the product type for the supplied product index.
+     *
+     * @param product The index of the product.
+     *
+     * @return The product type for the supplied product index.
+     */
+    public @DynamicProduct.Type String getProductType(int product) {
+        return productTypes[product];
+    }
+
+    /**
+     * Returns the number of offers in this catalog.
+     *
+     * @return The number of offers in this catalog.
+     */
+    public int getOfferCount() {
+        return offerProducts.length;
+    }
+
+    /**
+     * Returns the product index for the supplied offer.
+     *
+     * @param offer The index of the offer.
+     *
+     * @return The product index for the supplied offer.
+     */
+    public int getOfferProduct(int offer) {
+        return offerProducts[offer];
+    }
+
+    /**
+     * Returns the base plan id for the supplied offer.
+     *
+     * @param offer The index of the offer.
+     *
+     * @return The base plan id for the supplied offer, {@code null} for the one-time offers.
+     */
+    public @Nullable String getBasePlanId(int offer) {
+        return basePlanIds[offer];
+    }
+
+    /**
+     * Returns the offer id for the supplied offer.
+     *
+     * @param offer The index of the offer.
+     *
+     * @return The offer id for the supplied offer, {@code null} for the base offers.
+     */
+    public @Nullable String getOfferId(int offer) {
+        return offerIds[offer];
+    }
+
+    /**
+     * Returns the offer token for the supplied offer.
+     *
+     * @param offer The index of the offer.
+     *
+     * @return The offer token for the supplied offer.
+     */
+    public @Nullable String getOfferToken(int offer) {
+        return offerTokens[offer];
+    }
+
+    /**
+     * Returns the start index of the pricing phases for the supplied offer, inclusive.
+     *
+     * @param offer The index of the offer.
+     *
+     * @return The start index of the pricing phases for the supplied offer.
+     */
+    public int getPhaseStart(int offer) {
+        return phaseStarts[offer];
+    }
+
+    /**
+     * Returns the end index of the pricing phases for the supplied offer, exclusive.
+     *
+     * @param offer The index of the offer.
+     *
+     * @return The end index of the pricing phases for the supplied offer.
+     */
+    public int getPhaseEnd(int offer) {
+        return phaseStarts[offer + 1];
+    }
+
+    /**
+     * Returns the price in micros for the supplied pricing phase.
+     *
+     * @param phase The index of the pricing phase.
+     *
+     * @return The price in micros for the supplied pricing phase.
+     */
+    public long getPrice(int phase) {
+        return phasePrices[phase];
+    }
+
+    /**
+     * Returns the currency code for the supplied pricing phase.
+     *
+     * @param phase The index of the pricing phase.
+     *
+     * @return The currency code for the supplied pricing phase.
+     */
+    public @NonNull String getCurrency(int phase) {
+        return currencies[phaseCurrencies[phase]];
+    }
+
+    /**
+     * Returns the period unit for the supplied pricing phase.
+     *
+     * @param phase The index of the pricing phase.
+     *
+     * @return The period unit for the supplied pricing phase, otherwise {@link #UNKNOWN}
+     *         if there is no period.
+     *
+     * @see BillingPeriod.Unit
+     */
+    public int getPeriodUnit(int phase) {
+        return phaseUnits[phase];
+    }
+
+    /**
+     * Returns the period count for the supplied pricing phase.
+     *
+     * @param phase The index of the pricing phase.
+     *
+     * @return The period count for the supplied pricing phase.
+     */
+    public int getPeriodCount(int phase) {
+        return phaseCounts[phase];
+    }
+
+    /**
+     * Returns the billing period for the supplied pricing phase.
+     *
+     * @param phase The index of the pricing phase.
+     *
+     * @return The billing period for the supplied pricing phase, otherwise {@code null}
+     *         if there is no period.
+     */
+    public @Nullable BillingPeriod getPeriod(int phase) {
+        return phaseUnits[phase] != UNKNOWN
+                ? BillingPeriod.valueOf(phaseUnits[phase], phaseCounts[phase]) : null;
+    }
+
+    /**
+     * Returns the approximate duration in milliseconds for the supplied pricing phase.
+     *
+     * @param phase The index of the pricing phase.
+     *
+     * @return The approximate duration in milliseconds, otherwise {@code 0} if there is
+     *         no period.
+     */
+    public long getPeriodMillis(int phase) {
+        BillingPeriod period = getPeriod(phase);
+        return period != null ? period.getMillis() : 0;
+    }
+
+    /**
+     * Returns the billing cycle count for the supplied pricing phase.
+     *
+     * @param phase The index of the pricing phase.
+     *
+     * @return The billing cycle count for the supplied pricing phase.
+     */
+    public int getCycleCount(int phase) {
+        return phaseCycles[phase];
+    }
+
+    /**
+     * Returns the recurrence mode for the supplied pricing phase.
+     *
+     * @param phase The index of the pricing phase.
+     *
+     * @return The recurrence mode for the supplied pricing phase.
+     *
+     * @see ProductDetails.RecurrenceMode
+     */
+    public int getRecurrenceMode(int phase) {
+        return phaseModes[phase];
+    }
+
+    @Override
+    public @NonNull String toString() {
+        return "DynamicPriceCatalog{products=" + Arrays.toString(productIds)
+                + ", offers=" + getOfferCount() + ", phases=" + phasePrices.length + "}";
+    }
+}
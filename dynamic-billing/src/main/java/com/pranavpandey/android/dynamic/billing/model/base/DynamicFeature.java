@@ -76,8 +76,9 @@ public class DynamicFeature implements Parcelable, DynamicBillingListener {
 
     /**
      * {@code true} if this feature is enabled.
+     * <p>It is volatile as it may be read from the background threads.
      */
-    private boolean enabled;
+    private volatile boolean enabled;
 
     /**
      * Constructor to initialize an object of this class.
@@ -156,13 +157,18 @@ public class DynamicFeature implements Parcelable, DynamicBillingListener {
      *
      * @param in The parcel to read the values.
      */
-    @SuppressWarnings("unchecked")
     public DynamicFeature(@NonNull Parcel in) {
         this.id = in.readString();
         this.icon = in.readInt();
         this.title = in.readInt();
         this.subtitle = in.readInt();
-        this.products = in.readArrayList(DynamicProduct.class.getClassLoader());
+
+        int size = in.readInt();
+        this.products = new ArrayList<>(Math.max(size, 0));
+        for (int i = 0; i < size; i++) {
+            this.products.add(new DynamicProduct(in));
+        }
+
         this.enabled = in.readByte() != 0;
     }
 
@@ -184,16 +190,37 @@ public class DynamicFeature implements Parcelable, DynamicBillingListener {
 
     @Override
     public int describeContents() {
-        return hashCode();
+        return 0;
     }
 
     @Override
     public void writeToParcel(Parcel dest, int flags) {
+        writeToParcel(dest, flags, false);
+    }
+
+    /**
+     * Write this feature into the parcel.
+     *
+     * @param dest The parcel to write the values.
+     * @param flags The additional flags about how the object should be written.
+     * @param shallow {@code true} to skip the products, it is used while writing
+     *                the features of a product to avoid the cycles.
+     */
+    void writeToParcel(@NonNull Parcel dest, int flags, boolean shallow) {
         dest.writeString(id);
         dest.writeInt(icon);
         dest.writeInt(title);
         dest.writeInt(subtitle);
-        dest.writeList(products);
+
+        if (shallow) {
+            dest.writeInt(0);
+        } else {
+            dest.writeInt(products.size());
+            for (DynamicProduct product : products) {
+                product.writeToParcel(dest, flags, true);
+            }
+        }
+
         dest.writeByte((byte) (enabled ? 1 : 0));
     }
 
@@ -20,6 +20,7 @@ import android.content.Context;
 import android.os.Parcel;
 import android.os.Parcelable;
 import android.text.SpannableStringBuilder;
+import android.widget.TextView;
 
 import androidx.annotation.ColorInt;
 import androidx.annotation.DrawableRes;
@@ -34,6 +35,7 @@ import com.pranavpandey.android.dynamic.support.util.DynamicResourceUtils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.regex.Pattern;
 
 /**
@@ -119,6 +121,17 @@ public class DynamicProduct implements Parcelable {
      */
     public static final String UNKNOWN = "adb_product_unknown";
 
+    /**
+     * Known product types to be written as a tag in the parcel.
+     */
+    private static final String[] TYPE_TAGS =
+            { Type.UNKNOWN, Type.INAPP, Type.SUBS, Type.EXTERNAL };
+
+    /**
+     * Tag to write a custom product type as a string in the parcel.
+     */
+    private static final int TYPE_TAG_CUSTOM = -1;
+
     /**
      * Unique id of the product.
      */
@@ -178,8 +191,14 @@ public class DynamicProduct implements Parcelable {
      */
     public DynamicProduct(@NonNull Parcel in) {
         this.id = in.readString();
-        this.type = in.readString();
+        this.type = readType(in);
         this.subscriptions = in.readByte() != 0;
+
+        int size = in.readInt();
+        this.features = new ArrayList<>(Math.max(size, 0));
+        for (int i = 0; i < size; i++) {
+            this.features.add(new DynamicFeature(in));
+        }
     }
 
     /**
@@ -200,14 +219,65 @@ public class DynamicProduct implements Parcelable {
 
     @Override
     public int describeContents() {
-        return hashCode();
+        return 0;
     }
 
     @Override
     public void writeToParcel(Parcel dest, int flags) {
+        writeToParcel(dest, flags, false);
+    }
+
+    /**
+     * Write this product into the parcel.
+     *
+     * @param dest The parcel to write the values.
+     * @param flags The additional flags about how the object should be written.
+     * @param shallow {@code true} to skip the features, it is used while writing
+     *                the products of a feature to avoid the cycles.
+     */
+    void writeToParcel(@NonNull Parcel dest, int flags, boolean shallow) {
         dest.writeString(id);
-        dest.writeString(type);
+        writeType(dest, type);
         dest.writeByte((byte) (subscriptions ? 1 : 0));
+
+        if (shallow || features == null) {
+            dest.writeInt(0);
+        } else {
+            dest.writeInt(features.size());
+            for (DynamicFeature feature : features) {
+                feature.writeToParcel(dest, flags, true);
+            }
+        }
+    }
+
+    /**
+     * Write the product type into the parcel by using a tag for the known types.
+     *
+     * @param dest The parcel to write the product type.
+     * @param type The product type to be written.
+     */
+    private static void writeType(@NonNull Parcel dest, @Nullable String type) {
+        for (int i = 0; i < TYPE_TAGS.length; i++) {
+            if (TYPE_TAGS[i].equals(type)) {
+                dest.writeInt(i);
+                return;
+            }
+        }
+
+        dest.writeInt(TYPE_TAG_CUSTOM);
+        dest.writeString(type);
+    }
+
+    /**
+     * Read the product type from the parcel.
+     *
+     * @param in The parcel to read the product type.
+     *
+     * @return The product type read from the parcel.
+     */
+    private static @Nullable String readType(@NonNull Parcel in) {
+        int tag = in.readInt();
+        return tag >= 0 && tag < TYPE_TAGS.length ? TYPE_TAGS[tag] : in.readString();
     }
 
     /**
@@ -336,4 +406,40 @@ public class DynamicProduct implements Parcelable {
         return DynamicBillingUtils.buildFeaturesString(context,
                 getFeatures(), color, icons, withSubtitle);
     }
+
+    /**
+     * Build a feature string in the background based on the offered features and set it
+     * on the supplied text view.
+     *
+     * @param textView The text view to set the feature string.
+     * @param color The color to tint the icon drawables.
+     * @param icons {@code true} to include the icons.
+     * @param withSubtitle {@code true} to include the subtitles.
+     *
+     * @see DynamicBillingUtils#buildFeaturesStringAsync(TextView, List, int, boolean, boolean)
+     */
+    public void buildFeaturesStringAsync(@NonNull TextView textView,
+            @ColorInt int color, boolean icons, boolean withSubtitle) {
+        DynamicBillingUtils.buildFeaturesStringAsync(textView,
+                getFeatures(), color, icons, withSubtitle);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (!(obj instanceof DynamicProduct)) {
+            return false;
+        }
+
+        DynamicProduct product = (DynamicProduct) obj;
+        return id.equals(product.id) && Objects.equals(type, product.type);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * id.hashCode() + (type != null ? type.hashCode() : 0);
+    }
 }
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.model.base;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A registry to intern one instance per product id and type.
+ * <p>It can be used to share the factory products like {@code Premium} or {@code Monthly}
+ * among all the features, and the immutable product lists are also interned as flyweights
+ * so that the memory and lookup cost stay flat as the features grow.
+ *
+ * <p>The interned products are shared only by the holders of a registry, so it should be
+ * scoped to a catalog of features and the features attached to an interned product will be
+ * visible to all of them. It is released along with its owner.
+ *
+ * <pre>
+ *     DynamicProductRegistry registry = new DynamicProductRegistry();
+ *     new DynamicFeature(id, icon, title, subtitle,
+ *             registry.listOf(new Premium(), new Lifetime()));
+ * </pre>
+ */
+public class DynamicProductRegistry {
+
+    /**
+     * Map to hold the interned products mapped with themselves.
+     */
+    private final Map<DynamicProduct, DynamicProduct> mProducts;
+
+    /**
+     * Map to hold the interned immutable product lists mapped with themselves.
+     */
+    private final Map<List<DynamicProduct>, List<DynamicProduct>> mLists;
+
+    /**
+     * Constructor to initialize an object of this class.
+     */
+    public DynamicProductRegistry() {
+        this.mProducts = new HashMap<>();
+        this.mLists = new HashMap<>();
+    }
+
+    /**
+     * Returns the interned instance for the supplied product.
+     * <p>The first instance registered for an id and type will be returned afterwards.
+     *
+     * @param product The product to be interned.
+     * @param <T> The type of the product.
+     *
+     * @return The interned instance for the supplied product.
+     *
+     * @throws IllegalArgumentException If a product of another class has already been
+     *         interned for the same id and type.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized @NonNull <T extends DynamicProduct> T intern(@NonNull T product) {
+        DynamicProduct interned = mProducts.get(product);
+        if (interned == null) {
+            mProducts.put(product, product);
+            return product;
+        }
+
+        if (interned.getClass() != product.getClass()) {
+            throw new IllegalArgumentException("Product " + product.getId()
+                    + " is already interned as " + interned.getClass().getName());
+        }
+
+        return (T) interned;
+    }
+
+    /**
+     * Returns the interned product for the supplied id and type.
+     *
+     * @param id The id of the product.
+     * @param type The type of the product.
+     *
+     * @return The interned product for the supplied id and type, otherwise {@code null}
+     *         if it has not been interned.
+     */
+    public synchronized @Nullable DynamicProduct get(@NonNull String id,
+            @DynamicProduct.Type String type) {
+        return mProducts.get(new DynamicProduct(id, type));
+    }
+
+    /**
+     * Returns an interned immutable list for the supplied products.
+     * <p>All the products are interned and equal lists will share the same instance.
+     *
+     * @param products The products for the list.
+     *
+     * @return An interned immutable list for the supplied products.
+     *
+     * @throws IllegalArgumentException If a product of another class has already been
+     *         interned for the same id and type.
+     */
+    public synchronized @NonNull List<DynamicProduct> listOf(
+            @Nullable DynamicProduct... products) {
+        if (products == null || products.length == 0) {
+            return Collections.emptyList();
+        }
+
+        List<DynamicProduct> list = new ArrayList<>(products.length);
+        for (DynamicProduct product : products) {
+            if (product != null && !list.contains(product)) {
+                list.add(intern(product));
+            }
+        }
+
+        List<DynamicProduct> interned = mLists.get(list);
+        if (interned == null) {
+            interned = Collections.unmodifiableList(list);
+            mLists.put(interned, interned);
+        }
+
+        return interned;
+    }
+
+    /**
+     * Returns an interned immutable list for the supplied products.
+     *
+     * @param products The products for the list.
+     *
+     * @return An interned immutable list for the supplied products.
+     *
+     * @see #listOf(DynamicProduct...)
+     */
+    public @NonNull List<DynamicProduct> copyOf(
+            @Nullable List<? extends DynamicProduct> products) {
+        if (products == null || products.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return listOf(products.toArray(new DynamicProduct[0]));
+    }
+
+    /**
+     * Returns the number of interned products.
+     *
+     * @return The number of interned products.
+     */
+    public synchronized int size() {
+        return mProducts.size();
+    }
+
+    /**
+     * Clear all the interned products and lists.
+     */
+    public synchronized void clear() {
+        mProducts.clear();
+        mLists.clear();
+    }
+}
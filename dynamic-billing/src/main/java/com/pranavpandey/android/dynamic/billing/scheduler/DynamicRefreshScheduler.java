@@ -0,0 +1,575 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.scheduler;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.android.billingclient.api.ProductDetails;
+import com.android.billingclient.api.Purchase;
+import com.pranavpandey.android.dynamic.billing.model.BillingPeriod;
+import com.pranavpandey.android.dynamic.billing.model.base.DynamicProduct;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A scheduler to compute the next useful time to refresh the purchases.
+ * <p>It tracks the known purchase times, subscription periods and pending states so that
+ * the purchases can be refreshed around renewals and cancellations instead of polling.
+ *
+ * <p>All the methods must be called on the main thread.
+ */
+@MainThread
+public class DynamicRefreshScheduler {
+
+    /**
+     * Default interval in milliseconds to consider the purchases data fresh.
+     */
+    public static final long DEFAULT_INTERVAL_FRESH = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * Default interval in milliseconds to refresh the pending purchases.
+     */
+    public static final long DEFAULT_INTERVAL_PENDING = TimeUnit.MINUTES.toMillis(2);
+
+    /**
+     * Default maximum interval in milliseconds between two refreshes.
+     */
+    public static final long DEFAULT_INTERVAL_MAX = TimeUnit.HOURS.toMillis(24);
+
+    /**
+     * Default delay in milliseconds to refresh after a subscription period boundary.
+     */
+    public static final long DEFAULT_DELAY_RENEWAL = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * Default minimum back off in milliseconds while the billing service is unavailable.
+     */
+    public static final long DEFAULT_BACKOFF_MIN = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * Default maximum back off in milliseconds while the billing service is unavailable.
+     */
+    public static final long DEFAULT_BACKOFF_MAX = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * Default jitter fraction to be added to the computed delays.
+     */
+    public static final float DEFAULT_JITTER = 0.1f;
+
+    /**
+     * Constant value for the unknown time.
+     */
+    public static final long UNKNOWN = -1;
+
+    /**
+     * Known purchases mapped with their purchase tokens.
+     */
+    private final Map<String, Record> mPurchases;
+
+    /**
+     * Shortest known subscription period in milliseconds mapped with the product id.
+     */
+    private final Map<String, Long> mPeriods;
+
+    /**
+     * Known product types mapped with the product id.
+     */
+    private final Map<String, String> mTypes;
+
+    /**
+     * Random to generate the jitter.
+     */
+    private final Random mRandom;
+
+    /**
+     * Interval in milliseconds to consider the purchases data fresh.
+     */
+    private long mIntervalFresh;
+
+    /**
+     * Interval in milliseconds to refresh the pending purchases.
+     */
+    private long mIntervalPending;
+
+    /**
+     * Maximum interval in milliseconds between two refreshes.
+     */
+    private long mIntervalMax;
+
+    /**
+     * Jitter fraction to be added to the computed delays.
+     */
+    private float mJitter;
+
+    /**
+     * Current jitter factor between {@code 0} and {@link #mJitter}.
+     */
+    private float mJitterFactor;
+
+    /**
+     * Time of the last successful refresh.
+     */
+    private long mLastRefresh;
+
+    /**
+     * Time of the last unavailable event.
+     */
+    private long mLastUnavailable;
+
+    /**
+     * Number of consecutive unavailable events.
+     */
+    private int mUnavailableCount;
+
+    /**
+     * {@code true} if the purchases data has been invalidated.
+     */
+    private boolean mInvalidated;
+
+    /**
+     * Constructor to initialize an object of this class.
+     */
+    public DynamicRefreshScheduler() {
+        this.mPurchases = new HashMap<>();
+        this.mPeriods = new HashMap<>();
+        this.mTypes = new HashMap<>();
+        this.mRandom = new Random();
+        this.mIntervalFresh = DEFAULT_INTERVAL_FRESH;
+        this.mIntervalPending = DEFAULT_INTERVAL_PENDING;
+        this.mIntervalMax = DEFAULT_INTERVAL_MAX;
+        this.mLastRefresh = UNKNOWN;
+        this.mLastUnavailable = UNKNOWN;
+
+        setJitter(DEFAULT_JITTER);
+    }
+
+    /**
+     * Returns the interval in milliseconds to consider the purchases data fresh.
+     *
+     * @return The interval in milliseconds to consider the purchases data fresh.
+     */
+    public long getIntervalFresh() {
+        return mIntervalFresh;
+    }
+
+    /**
+     * Sets the interval in milliseconds to consider the purchases data fresh.
+     *
+     * @param intervalFresh The interval to be set.
+     *
+     * @return The {@link DynamicRefreshScheduler} object to allow for chaining of calls
+     *         to set methods.
+     */
+    public @NonNull DynamicRefreshScheduler setIntervalFresh(long intervalFresh) {
+        this.mIntervalFresh = Math.max(0, intervalFresh);
+
+        return this;
+    }
+
+    /**
+     * Returns the interval in milliseconds to refresh the pending purchases.
+     *
+     * @return The interval in milliseconds to refresh the pending purchases.
+     */
+    public long getIntervalPending() {
+        return mIntervalPending;
+    }
+
+    /**
+     * Sets the interval in milliseconds to refresh the pending purchases.
+     *
+     * @param intervalPending The interval to be set.
+     *
+     * @return The {@link DynamicRefreshScheduler} object to allow for chaining of calls
+     *         to set methods.
+     */
+    public @NonNull DynamicRefreshScheduler setIntervalPending(long intervalPending) {
+        this.mIntervalPending = Math.max(0, intervalPending);
+
+        return this;
+    }
+
+    /**
+     * Returns the maximum interval in milliseconds between two refreshes.
+     *
+     * @return The maximum interval in milliseconds between two refreshes.
+     */
+    public long getIntervalMax() {
+        return mIntervalMax;
+    }
+
+    /**
+     * Sets the maximum interval in milliseconds between two refreshes.
+     *
+     * @param intervalMax The interval to be set.
+     *
+     * @return The {@link DynamicRefreshScheduler} object to allow for chaining of calls
+     *         to set methods.
+     */
+    public @NonNull DynamicRefreshScheduler setIntervalMax(long intervalMax) {
+        this.mIntervalMax = Math.max(0, intervalMax);
+
+        return this;
+    }
+
+    /**
+     * Returns the jitter fraction to be added to the computed delays.
+     *
+     * @return The jitter fraction to be added to the computed delays.
+     */
+    public float getJitter() {
+        return mJitter;
+    }
+
+    /**
+     * Sets the jitter fraction to be added to the computed delays.
+     *
+     * @param jitter The jitter fraction to be set.
+     *
+     * @return The {@link DynamicRefreshScheduler} object to allow for chaining of calls
+     *         to set methods.
+     */
+    public @NonNull DynamicRefreshScheduler setJitter(float jitter) {
+        this.mJitter = Math.max(0f, Math.min(1f, jitter));
+        this.mJitterFactor = mRandom.nextFloat() * mJitter;
+
+        return this;
+    }
+
+    /**
+     * Returns the time of the last successful refresh.
+     *
+     * @return The time of the last successful refresh, otherwise {@link #UNKNOWN}.
+     */
+    public long getLastRefresh() {
+        return mLastRefresh;
+    }
+
+    /**
+     * Returns whether the billing service is currently considered unavailable.
+     *
+     * @return {@code true} if the billing service is currently considered unavailable.
+     */
+    public boolean isUnavailable() {
+        return mUnavailableCount > 0;
+    }
+
+    /**
+     * Returns whether the purchases data is fresh at the supplied time.
+     *
+     * @param now The current time in milliseconds.
+     *
+     * @return {@code true} if the purchases data is fresh at the supplied time.
+     */
+    public boolean isFresh(long now) {
+        return !mInvalidated && mLastRefresh != UNKNOWN && now - mLastRefresh < mIntervalFresh;
+    }
+
+    /**
+     * Returns whether any of the known purchases is pending.
+     *
+     * @return {@code true} if any of the known purchases is pending.
+     */
+    public boolean hasPendingPurchases() {
+        for (Record record : mPurchases.values()) {
+            if (record.state == Purchase.PurchaseState.PENDING) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns whether the purchases should be refreshed at the supplied time.
+     * <p>Pending purchases will be refreshed on their own interval even if the purchases
+     * data is still fresh.
+     *
+     * @param now The current time in milliseconds.
+     *
+     * @return {@code true} if the purchases should be refreshed at the supplied time.
+     */
+    public boolean isRefreshRequired(long now) {
+        if (isFresh(now) && !hasPendingPurchases()) {
+            return false;
+        }
+
+        return mInvalidated || mLastRefresh == UNKNOWN || now >= getNextRefreshTime(now);
+    }
+
+    /**
+     * Invalidate the purchases data so that the next refresh is not skipped.
+     */
+    public void invalidate() {
+        mInvalidated = true;
+    }
+
+    /**
+     * Update the known subscription periods from the supplied product details.
+     *
+     * @param productDetails The product details to be used.
+     */
+    public void onProductDetails(@Nullable List<ProductDetails> productDetails) {
+        if (productDetails == null) {
+            return;
+        }
+
+        for (ProductDetails details : productDetails) {
+            mTypes.put(details.getProductId(), details.getProductType());
+
+            if (details.getSubscriptionOfferDetails() == null) {
+                continue;
+            }
+
+            long period = UNKNOWN;
+            for (ProductDetails.SubscriptionOfferDetails offer
+                    : details.getSubscriptionOfferDetails()) {
+                List<ProductDetails.PricingPhase> phases =
+                        offer.getPricingPhases().getPricingPhaseList();
+                if (phases.isEmpty()) {
+                    continue;
+                }
+
+                BillingPeriod billingPeriod = BillingPeriod.parse(
+                        phases.get(phases.size() - 1).getBillingPeriod());
+                long phasePeriod = billingPeriod != null ? billingPeriod.getMillis() : UNKNOWN;
+                if (phasePeriod > 0 && (period == UNKNOWN || phasePeriod < period)) {
+                    period = phasePeriod;
+                }
+            }
+
+            if (period != UNKNOWN) {
+                mPeriods.put(details.getProductId(), period);
+            }
+        }
+    }
+
+    /**
+     * Merge the supplied purchases with the known purchases.
+     *
+     * @param purchases The purchases to be merged.
+     */
+    public void onPurchasesUpdated(@Nullable List<Purchase> purchases) {
+        if (purchases == null) {
+            return;
+        }
+
+        for (Purchase purchase : purchases) {
+            mPurchases.put(purchase.getPurchaseToken(), new Record(purchase,
+                    getType(purchase.getProducts())));
+        }
+    }
+
+    /**
+     * This method will be called after successfully refreshing the purchases.
+     *
+     * @param type The product type refreshed, {@code null} if unknown.
+     * @param purchases The refreshed purchases.
+     * @param now The current time in milliseconds.
+     */
+    public void onPurchasesRefreshed(@Nullable @DynamicProduct.Type String type,
+            @Nullable List<Purchase> purchases, long now) {
+        if (type != null) {
+            Iterator<Record> iterator = mPurchases.values().iterator();
+            while (iterator.hasNext()) {
+                Record record = iterator.next();
+                if (record.type == null || type.equals(record.type)) {
+                    iterator.remove();
+                }
+            }
+        }
+
+        onPurchasesUpdated(purchases);
+        onAvailable();
+
+        mLastRefresh = now;
+        mInvalidated = false;
+        mJitterFactor = mRandom.nextFloat() * mJitter;
+    }
+
+    /**
+     * This method will be called when the billing service is available.
+     */
+    public void onAvailable() {
+        mUnavailableCount = 0;
+        mLastUnavailable = UNKNOWN;
+    }
+
+    /**
+     * This method will be called when the billing service is unavailable.
+     *
+     * @param now The current time in milliseconds.
+     */
+    public void onUnavailable(long now) {
+        mUnavailableCount++;
+        mLastUnavailable = now;
+        mJitterFactor = mRandom.nextFloat() * mJitter;
+    }
+
+    /**
+     * Returns the next useful time to refresh the purchases.
+     *
+     * @param now The current time in milliseconds.
+     *
+     * @return The next useful time to refresh the purchases.
+     */
+    public long getNextRefreshTime(long now) {
+        if (isUnavailable()) {
+            long backoff = Math.min(DEFAULT_BACKOFF_MAX, DEFAULT_BACKOFF_MIN
+                    << Math.min(mUnavailableCount - 1, 16));
+
+            return mLastUnavailable + withJitter(backoff);
+        }
+
+        if (mLastRefresh == UNKNOWN || mInvalidated) {
+            return now;
+        }
+
+        long next = mLastRefresh + mIntervalMax;
+        boolean pending = false;
+        for (Record record : mPurchases.values()) {
+            if (record.state == Purchase.PurchaseState.PENDING) {
+                pending = true;
+            } else if (record.state == Purchase.PurchaseState.PURCHASED) {
+                long boundary = getNextBoundary(record, now);
+                if (boundary != UNKNOWN) {
+                    next = Math.min(next, boundary + DEFAULT_DELAY_RENEWAL);
+                }
+            }
+        }
+
+        // Fresh interval applies only to the regular deadlines, pending purchases are
+        // polled on their own shorter interval.
+        next = Math.max(next, mLastRefresh + mIntervalFresh);
+        if (pending) {
+            next = Math.min(next, mLastRefresh + mIntervalPending);
+        }
+
+        return now + withJitter(Math.max(0, next - now));
+    }
+
+    /**
+     * Returns the delay in milliseconds after which the purchases should be refreshed.
+     *
+     * @param now The current time in milliseconds.
+     *
+     * @return The delay in milliseconds after which the purchases should be refreshed.
+     */
+    public long getNextRefreshDelay(long now) {
+        return Math.max(0, getNextRefreshTime(now) - now);
+    }
+
+    /**
+     * Returns the next subscription period boundary for the supplied purchase record.
+     *
+     * @param record The purchase record to be used.
+     * @param now The current time in milliseconds.
+     *
+     * @return The next subscription period boundary, otherwise {@link #UNKNOWN}.
+     */
+    private long getNextBoundary(@NonNull Record record, long now) {
+        long period = UNKNOWN;
+        for (String product : record.products) {
+            Long productPeriod = mPeriods.get(product);
+            if (productPeriod != null && (period == UNKNOWN || productPeriod < period)) {
+                period = productPeriod;
+            }
+        }
+
+        if (period == UNKNOWN || record.time <= 0) {
+            return UNKNOWN;
+        }
+
+        long elapsed = Math.max(0, now - record.time);
+        return record.time + (elapsed / period + 1) * period;
+    }
+
+    /**
+     * Returns the supplied delay along with the current jitter.
+     *
+     * @param delay The delay to be used.
+     *
+     * @return The supplied delay along with the current jitter.
+     */
+    private long withJitter(long delay) {
+        return delay + (long) (delay * mJitterFactor);
+    }
+
+    /**
+     * Returns the known type for the supplied products.
+     *
+     * @param products The products to be used.
+     *
+     * @return The known type for the supplied products, otherwise {@code null}.
+     */
+    private @Nullable String getType(@NonNull List<String> products) {
+        for (String product : products) {
+            String type = mTypes.get(product);
+            if (type != null) {
+                return type;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * A class to hold the purchase details required to schedule a refresh.
+     */
+    private static class Record {
+
+        /**
+         * Products associated with the purchase.
+         */
+        final List<String> products;
+
+        /**
+         * Known type of the purchase, {@code null} if unknown.
+         */
+        final @Nullable String type;
+
+        /**
+         * Time of the purchase.
+         */
+        final long time;
+
+        /**
+         * State of the purchase.
+         */
+        final int state;
+
+        /**
+         * Constructor to initialize an object of this class.
+         *
+         * @param purchase The purchase to be used.
+         * @param type The known type of the purchase.
+         */
+        Record(@NonNull Purchase purchase, @Nullable String type) {
+            this.products = purchase.getProducts();
+            this.type = type;
+            this.time = purchase.getPurchaseTime();
+            this.state = purchase.getPurchaseState();
+        }
+    }
+}
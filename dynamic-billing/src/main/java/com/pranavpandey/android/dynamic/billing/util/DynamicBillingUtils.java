@@ -17,19 +17,40 @@
 package com.pranavpandey.android.dynamic.billing.util;
 
 import android.content.Context;
+import android.content.Intent;
+import android.content.pm.ActivityInfo;
+import android.content.pm.ResolveInfo;
+import android.content.res.Configuration;
+import android.content.res.Resources;
 import android.graphics.drawable.Drawable;
-import android.text.Spannable;
-import android.text.SpannableString;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
 import android.text.SpannableStringBuilder;
 import android.text.Spanned;
 import android.text.style.ImageSpan;
+import android.util.Log;
+import android.util.LruCache;
+import android.widget.TextView;
 
 import androidx.annotation.ColorInt;
+import androidx.annotation.DrawableRes;
+import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
 
 import com.android.billingclient.api.ProductDetails;
+import com.android.billingclient.api.QueryProductDetailsResult;
 import com.pranavpandey.android.dynamic.billing.R;
+import com.pranavpandey.android.dynamic.billing.listener.DynamicFeaturesListener;
+import com.pranavpandey.android.dynamic.billing.listener.DynamicOffersListener;
+import com.pranavpandey.android.dynamic.billing.model.BillingPeriod;
+import com.pranavpandey.android.dynamic.billing.model.DynamicCatalogCodec;
+import com.pranavpandey.android.dynamic.billing.model.DynamicOffer;
 import com.pranavpandey.android.dynamic.billing.model.base.DynamicFeature;
 import com.pranavpandey.android.dynamic.billing.model.base.DynamicProduct;
 import com.pranavpandey.android.dynamic.support.util.DynamicResourceUtils;
@@ -37,7 +58,24 @@ import com.pranavpandey.android.dynamic.util.DynamicDeviceUtils;
 import com.pranavpandey.android.dynamic.util.DynamicDrawableUtils;
 import com.pranavpandey.android.dynamic.util.DynamicLinkUtils;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Helper class to perform billing related operations.
@@ -76,6 +114,28 @@ public class DynamicBillingUtils {
     public static final String EXTRA_PRODUCTS_DISABLE_SUBS =
             "com.pranavpandey.android.dynamic.billing.intent.extra.PRODUCTS_DISABLE_SUBS";
 
+    /**
+     * Intent extra constant for the encoded product and feature graph.
+     *
+     * @see DynamicCatalogCodec
+     */
+    public static final String EXTRA_CATALOG =
+            "com.pranavpandey.android.dynamic.billing.intent.extra.CATALOG";
+
+    /**
+     * Intent extra constant for the id of the catalog pinned in the process memory.
+     *
+     * @see DynamicCatalogRegistry
+     */
+    public static final String EXTRA_CATALOG_ID =
+            "com.pranavpandey.android.dynamic.billing.intent.extra.CATALOG_ID";
+
+    /**
+     * Intent extra constant for the process id that pinned the catalog.
+     */
+    public static final String EXTRA_CATALOG_PID =
+            "com.pranavpandey.android.dynamic.billing.intent.extra.CATALOG_PID";
+
     /**
      * URL constant to manage billing inside Google Play.
      */
@@ -88,12 +148,111 @@ public class DynamicBillingUtils {
     public static final String URL_GOOGLE_PLAY_SUB =
             "http://play.google.com/store/account/subscriptions?sku=%1$s&package=%2$s";
 
+    /**
+     * Tag to log the billing utilities.
+     */
+    private static final String TAG = "DynamicBillingUtils";
+
     /**
      * URL constant for Google Payments history.
      */
     public static final String URL_GOOGLE_PLAY_ORDER_HISTORY =
             "https://play.google.com/store/account/orderhistory";
 
+    /**
+     * Maximum number of display strings to be cached.
+     */
+    public static final int CACHE_SIZE_STRINGS = 256;
+
+    /**
+     * Constant for the period display string variant.
+     */
+    private static final int VARIANT_PERIOD = 0;
+
+    /**
+     * Constant for the pricing phases display string variant.
+     */
+    private static final int VARIANT_PHASES = 1;
+
+    /**
+     * Constant for the pricing phases display string variant including the base phase.
+     */
+    private static final int VARIANT_PHASES_BASE = 2;
+
+    /**
+     * Maximum number of tinted drawables to be cached.
+     */
+    public static final int CACHE_SIZE_DRAWABLES = 64;
+
+    /**
+     * Maximum number of feature strings to be cached.
+     */
+    public static final int CACHE_SIZE_FEATURES = 32;
+
+    /**
+     * Main thread handler to publish the background results.
+     */
+    private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Executor to perform the billing operations in the background.
+     */
+    private static ExecutorService sExecutor;
+
+    /**
+     * {@code true} for the threads of the {@link #getExecutor()}.
+     */
+    private static final ThreadLocal<Boolean> sExecutorThread = new ThreadLocal<>();
+
+    /**
+     * Cache to memoize the formatted display strings.
+     */
+    private static final LruCache<DisplayKey, String> sStringsCache =
+            new LruCache<>(CACHE_SIZE_STRINGS);
+
+    /**
+     * Cache to hold the constant state of the tinted drawables.
+     */
+    private static final LruCache<DrawableKey, Drawable.ConstantState> sDrawablesCache =
+            new LruCache<>(CACHE_SIZE_DRAWABLES);
+
+    /**
+     * Cache to hold the built feature strings.
+     */
+    private static final LruCache<FeaturesKey, SpannableStringBuilder> sFeaturesCache =
+            new LruCache<>(CACHE_SIZE_FEATURES);
+
+    /**
+     * Clear the cached display strings, drawables and feature strings.
+     * <p>It must be called whenever the configuration changes so that they are
+     * resolved again with the updated resources.
+     */
+    public static void clearCache() {
+        sStringsCache.evictAll();
+        sDrawablesCache.evictAll();
+        sFeaturesCache.evictAll();
+        DynamicStringTemplate.clearCache();
+    }
+
+    /**
+     * Returns the primary locale for the supplied context.
+     *
+     * @param context The context to retrieve the configuration.
+     *
+     * @return The primary locale for the supplied context.
+     */
+    @SuppressWarnings("deprecation")
+    public static @NonNull Locale getLocale(@NonNull Context context) {
+        Configuration configuration = context.getResources().getConfiguration();
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            return configuration.getLocales().isEmpty()
+                    ? Locale.getDefault() : configuration.getLocales().get(0);
+        }
+
+        return configuration.locale != null ? configuration.locale : Locale.getDefault();
+    }
+
     /**
      * Build a feature string based on the supplied collection including
      * icons, titles and subtitles.
@@ -114,8 +273,56 @@ public class DynamicBillingUtils {
             return null;
         }
 
+        FeaturesKey key = new FeaturesKey(getLocale(context), new ThemeKey(context),
+                features, color, icons, withSubtitle);
+        SpannableStringBuilder featuresString = sFeaturesCache.get(key);
+        if (featuresString == null) {
+            featuresString = formatFeaturesString(context, features, color, icons, withSubtitle);
+            sFeaturesCache.put(key, featuresString);
+        }
+
+        featuresString = new SpannableStringBuilder(featuresString);
+        if (icons) {
+            int size = context.getResources().getDimensionPixelOffset(R.dimen.ads_icon_header);
+            for (IconSpan span : featuresString.getSpans(
+                    0, featuresString.length(), IconSpan.class)) {
+                int start = featuresString.getSpanStart(span);
+                int end = featuresString.getSpanEnd(span);
+                featuresString.removeSpan(span);
+
+                Drawable drawable = getTintedDrawable(context, span.icon, color, size);
+                if (drawable != null) {
+                    featuresString.setSpan(new ImageSpan(drawable, ImageSpan.ALIGN_BASELINE),
+                            start, end, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+                }
+            }
+        }
+
+        return featuresString;
+    }
+
+    /**
+     * Format a feature string based on the supplied collection including
+     * icons, titles and subtitles.
+     * <p>The icons are marked with an {@link IconSpan} so that the cached string does not
+     * share the drawables.
+     *
+     * @param context The context to retrieve resources.
+     * @param features The features collection to be processed.
+     * @param color The color to tint the icon drawables.
+     * @param icons {@code true} to include the icons.
+     * @param withSubtitle {@code true} to include the subtitles.
+     *
+     * @return The feature string based on the supplied collection including icons,
+     *         titles and subtitles.
+     */
+    private static @NonNull SpannableStringBuilder formatFeaturesString(
+            @NonNull Context context, @NonNull List<DynamicFeature> features,
+            @ColorInt int color, boolean icons, boolean withSubtitle) {
         SpannableStringBuilder iconString = new SpannableStringBuilder();
         SpannableStringBuilder textString = new SpannableStringBuilder();
+        int size = icons ? context.getResources()
+                .getDimensionPixelOffset(R.dimen.ads_icon_header) : 0;
 
         for (DynamicFeature feature : features) {
             if (iconString.length() > 0) {
@@ -125,32 +332,194 @@ public class DynamicBillingUtils {
                 textString.append(withSubtitle ? "\n\n" : "\n");
             }
 
-            Spannable title = new SpannableString(context.getString(feature.getTitle()));
-            Spannable subtitle = new SpannableString(context.getString(feature.getSubtitle()));
-            Drawable drawable = DynamicResourceUtils.getDrawable(context, feature.getIcon());
-            drawable = DynamicDrawableUtils.colorizeDrawable(drawable, color);
-
+            Drawable drawable = icons ? getTintedDrawable(
+                    context, feature.getIcon(), color, size) : null;
             if (drawable != null) {
                 String span = "[icon]";
-                int size = context.getResources()
-                        .getDimensionPixelOffset(R.dimen.ads_icon_header);
-                drawable.setBounds(0, 0, size, size);
 
                 iconString.append(span);
-                iconString.setSpan(new ImageSpan(drawable, ImageSpan.ALIGN_BASELINE),
+                iconString.setSpan(new IconSpan(feature.getIcon()),
                         iconString.length() - span.length(), iconString.length(),
                         Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
             }
 
-            textString.append(title);
+            textString.append(context.getString(feature.getTitle()));
             if (withSubtitle) {
-                textString.append("\n").append(subtitle);
+                textString.append("\n").append(context.getString(feature.getSubtitle()));
             }
         }
 
         return icons ? iconString.append("\n\n").append(textString) : textString;
     }
 
+    /**
+     * Build a feature string in the background based on the supplied collection including
+     * icons, titles and subtitles.
+     * <p>The result will be pre-computed for the supplied text params and delivered
+     * on the main thread.
+     *
+     * @param context The context to retrieve resources.
+     * @param features The features collection to be processed.
+     * @param color The color to tint the icon drawables.
+     * @param icons {@code true} to include the icons.
+     * @param withSubtitle {@code true} to include the subtitles.
+     * @param params The text params to pre-compute the feature string, {@code null} to
+     *               skip the pre-computation.
+     * @param listener The listener to receive the feature string.
+     *
+     * @see #buildFeaturesString(Context, List, int, boolean, boolean)
+     * @see androidx.core.widget.TextViewCompat#getTextMetricsParams(TextView)
+     */
+    public static void buildFeaturesStringAsync(final @Nullable Context context,
+            @Nullable List<DynamicFeature> features, final @ColorInt int color,
+            final boolean icons, final boolean withSubtitle,
+            final @Nullable PrecomputedTextCompat.Params params,
+            final @NonNull DynamicFeaturesListener listener) {
+        if (context == null || features == null) {
+            listener.onFeaturesStringBuilt(null);
+
+            return;
+        }
+
+        final List<DynamicFeature> snapshot = new ArrayList<>(features);
+        getExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                CharSequence featuresString = buildFeaturesString(
+                        context, snapshot, color, icons, withSubtitle);
+
+                if (featuresString != null && params != null) {
+                    featuresString = PrecomputedTextCompat.create(featuresString, params);
+                }
+
+                final CharSequence result = featuresString;
+                sMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onFeaturesStringBuilt(result);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Build a feature string in the background and set it on the supplied text view.
+     *
+     * @param textView The text view to set the feature string.
+     * @param features The features collection to be processed.
+     * @param color The color to tint the icon drawables.
+     * @param icons {@code true} to include the icons.
+     * @param withSubtitle {@code true} to include the subtitles.
+     *
+     * @see #buildFeaturesStringAsync(Context, List, int, boolean, boolean,
+     *      PrecomputedTextCompat.Params, DynamicFeaturesListener)
+     */
+    @MainThread
+    public static void buildFeaturesStringAsync(final @NonNull TextView textView,
+            @Nullable List<DynamicFeature> features, @ColorInt int color,
+            boolean icons, boolean withSubtitle) {
+        final Object tag = new Object();
+        textView.setTag(R.id.adb_features_string, tag);
+
+        buildFeaturesStringAsync(textView.getContext(), features, color, icons, withSubtitle,
+                TextViewCompat.getTextMetricsParams(textView), new DynamicFeaturesListener() {
+                    @Override
+                    public void onFeaturesStringBuilt(@Nullable CharSequence featuresString) {
+                        if (textView.getTag(R.id.adb_features_string) != tag) {
+                            return;
+                        }
+
+                        if (featuresString instanceof PrecomputedTextCompat) {
+                            TextViewCompat.setPrecomputedText(textView,
+                                    (PrecomputedTextCompat) featuresString);
+                        } else {
+                            textView.setText(featuresString);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Returns the executor to perform the billing operations in the background.
+     *
+     * @return The executor to perform the billing operations in the background.
+     */
+    public static synchronized @NonNull ExecutorService getExecutor() {
+        if (sExecutor == null) {
+            sExecutor = Executors.newFixedThreadPool(Math.max(2, Math.min(4,
+                    Runtime.getRuntime().availableProcessors() - 1)), new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(final @NonNull Runnable runnable) {
+                    Thread thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            sExecutorThread.set(true);
+                            runnable.run();
+                        }
+                    }, "DynamicBilling #" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+
+                    return thread;
+                }
+            });
+        }
+
+        return sExecutor;
+    }
+
+    /**
+     * Checks whether the current thread belongs to the {@link #getExecutor()}.
+     *
+     * @return {@code true} if the current thread belongs to the executor.
+     */
+    public static boolean isExecutorThread() {
+        return Boolean.TRUE.equals(sExecutorThread.get());
+    }
+
+    /**
+     * Returns the tinted drawable for the supplied resource, color and size.
+     * <p>The constant state of the tinted drawables is cached for the supplied color and size
+     * along with the current configuration and theme, and a new drawable will be returned
+     * every time from it. It must be mutated before changing its state.
+     *
+     * @param context The context to retrieve resources.
+     * @param drawableRes The drawable resource to be used.
+     * @param color The color to tint the drawable.
+     * @param size The size in pixels to set the drawable bounds.
+     *
+     * @return The tinted drawable for the supplied resource, color and size.
+     */
+    public static @Nullable Drawable getTintedDrawable(@NonNull Context context,
+            @DrawableRes int drawableRes, @ColorInt int color, int size) {
+        DrawableKey key = new DrawableKey(drawableRes, color, size, new ThemeKey(context));
+        Drawable.ConstantState state = sDrawablesCache.get(key);
+        Drawable drawable;
+
+        if (state != null) {
+            drawable = state.newDrawable(context.getResources(), context.getTheme());
+        } else {
+            drawable = DynamicResourceUtils.getDrawable(context, drawableRes);
+            if (drawable == null) {
+                return null;
+            }
+
+            drawable = DynamicDrawableUtils.colorizeDrawable(drawable.mutate(), color);
+            if (drawable != null && drawable.getConstantState() != null) {
+                sDrawablesCache.put(key, drawable.getConstantState());
+            }
+        }
+
+        if (drawable != null) {
+            drawable.setBounds(0, 0, size, size);
+        }
+
+        return drawable;
+    }
+
     /**
      * Build a feature string based on the supplied collection including
      * icons, titles and subtitles.
@@ -185,24 +554,27 @@ public class DynamicBillingUtils {
             return null;
         }
 
-        int periodCount = Integer.parseInt(period.replaceAll(
-                DynamicProduct.Patterns.NUMBER.pattern(), ""));
-
-        if (period.contains(DynamicProduct.Period.DAY)) {
-            return String.format(context.getString(
-                    R.string.adb_offer_free_trial_day), periodCount);
-        } else if (period.contains(DynamicProduct.Period.WEEK)) {
-            return String.format(context.getString(
-                    R.string.adb_offer_free_trial_week), periodCount);
-        } else if (period.contains(DynamicProduct.Period.MONTH)) {
-            return String.format(context.getString(
-                    R.string.adb_offer_free_trial_month), periodCount);
-        } else if (period.contains(DynamicProduct.Period.YEAR)) {
-            return String.format(context.getString(
-                    R.string.adb_offer_free_trial_year), periodCount);
+        BillingPeriod billingPeriod = BillingPeriod.parse(period);
+        if (billingPeriod == null) {
+            return period;
         }
 
-        return period;
+        switch (billingPeriod.getUnit()) {
+            case BillingPeriod.Unit.DAY:
+                return String.format(context.getString(
+                        R.string.adb_offer_free_trial_day), billingPeriod.getCount());
+            case BillingPeriod.Unit.WEEK:
+                return String.format(context.getString(
+                        R.string.adb_offer_free_trial_week), billingPeriod.getCount());
+            case BillingPeriod.Unit.MONTH:
+                return String.format(context.getString(
+                        R.string.adb_offer_free_trial_month), billingPeriod.getCount());
+            case BillingPeriod.Unit.YEAR:
+                return String.format(context.getString(
+                        R.string.adb_offer_free_trial_year), billingPeriod.getCount());
+            default:
+                return period;
+        }
     }
 
     /**
@@ -219,27 +591,31 @@ public class DynamicBillingUtils {
             return null;
         }
 
-        int periodCount = Integer.parseInt(period.replaceAll(
-                DynamicProduct.Patterns.NUMBER.pattern(), ""));
-
-        if (period.contains(DynamicProduct.Period.HOUR)) {
-            return context.getResources().getQuantityString(
-                    R.plurals.adb_validity_hours, periodCount, periodCount);
-        } else if (period.contains(DynamicProduct.Period.DAY)) {
-            return context.getResources().getQuantityString(
-                    R.plurals.adb_validity_days, periodCount, periodCount);
-        } else if (period.contains(DynamicProduct.Period.WEEK)) {
-            return context.getResources().getQuantityString(
-                    R.plurals.adb_validity_weeks, periodCount, periodCount);
-        } else if (period.contains(DynamicProduct.Period.MONTH)) {
-            return context.getResources().getQuantityString(
-                    R.plurals.adb_validity_months, periodCount, periodCount);
-        } else if (period.contains(DynamicProduct.Period.YEAR)) {
-            return context.getResources().getQuantityString(
-                    R.plurals.adb_validity_years, periodCount, periodCount);
+        BillingPeriod billingPeriod = BillingPeriod.parse(period);
+        if (billingPeriod == null) {
+            return period;
         }
 
-        return period;
+        int periodCount = billingPeriod.getCount();
+        switch (billingPeriod.getUnit()) {
+            case BillingPeriod.Unit.HOUR:
+                return context.getResources().getQuantityString(
+                        R.plurals.adb_validity_hours, periodCount, periodCount);
+            case BillingPeriod.Unit.DAY:
+                return context.getResources().getQuantityString(
+                        R.plurals.adb_validity_days, periodCount, periodCount);
+            case BillingPeriod.Unit.WEEK:
+                return context.getResources().getQuantityString(
+                        R.plurals.adb_validity_weeks, periodCount, periodCount);
+            case BillingPeriod.Unit.MONTH:
+                return context.getResources().getQuantityString(
+                        R.plurals.adb_validity_months, periodCount, periodCount);
+            case BillingPeriod.Unit.YEAR:
+                return context.getResources().getQuantityString(
+                        R.plurals.adb_validity_years, periodCount, periodCount);
+            default:
+                return period;
+        }
     }
 
     /**
@@ -257,30 +633,37 @@ public class DynamicBillingUtils {
             return null;
         }
 
-        int periodCount = Integer.parseInt(period.replaceAll(
-                DynamicProduct.Patterns.NUMBER.pattern(), ""));
+        BillingPeriod billingPeriod = BillingPeriod.parse(period);
         String formattedPeriod = period;
 
-        if (period.contains(DynamicProduct.Period.DAY)) {
-            formattedPeriod = periodCount > 1 ? String.format(
-                    context.getString(R.string.adb_offer_first_days), periodCount)
-                    : context.getString(R.string.adb_offer_first_day);
-        } else if (period.contains(DynamicProduct.Period.WEEK)) {
-            formattedPeriod = periodCount > 1 ? String.format(
-                    context.getString(R.string.adb_offer_first_weeks), periodCount)
-                    : context.getString(R.string.adb_offer_first_week);
-        } else if (period.contains(DynamicProduct.Period.MONTH)) {
-            formattedPeriod = periodCount > 1 ? String.format(
-                    context.getString(R.string.adb_offer_first_months), periodCount)
-                    : context.getString(R.string.adb_offer_first_month);
-        } else if (period.contains(DynamicProduct.Period.YEAR)) {
-            formattedPeriod = periodCount > 1 ? String.format(
-                    context.getString(R.string.adb_offer_first_years), periodCount)
-                    : context.getString(R.string.adb_offer_first_year);
+        if (billingPeriod != null) {
+            int periodCount = billingPeriod.getCount();
+            switch (billingPeriod.getUnit()) {
+                case BillingPeriod.Unit.DAY:
+                    formattedPeriod = periodCount > 1 ? String.format(
+                            context.getString(R.string.adb_offer_first_days), periodCount)
+                            : context.getString(R.string.adb_offer_first_day);
+                    break;
+                case BillingPeriod.Unit.WEEK:
+                    formattedPeriod = periodCount > 1 ? String.format(
+                            context.getString(R.string.adb_offer_first_weeks), periodCount)
+                            : context.getString(R.string.adb_offer_first_week);
+                    break;
+                case BillingPeriod.Unit.MONTH:
+                    formattedPeriod = periodCount > 1 ? String.format(
+                            context.getString(R.string.adb_offer_first_months), periodCount)
+                            : context.getString(R.string.adb_offer_first_month);
+                    break;
+                case BillingPeriod.Unit.YEAR:
+                    formattedPeriod = periodCount > 1 ? String.format(
+                            context.getString(R.string.adb_offer_first_years), periodCount)
+                            : context.getString(R.string.adb_offer_first_year);
+                    break;
+            }
         }
 
-        return String.format(context.getString(R.string.ads_format_blank_space),
-                formattedPrice, formattedPeriod);
+        return DynamicStringTemplate.get(context, R.string.ads_format_blank_space)
+                .format(formattedPrice, formattedPeriod);
     }
 
     /**
@@ -298,30 +681,37 @@ public class DynamicBillingUtils {
             return null;
         }
 
-        int periodCount = Integer.parseInt(period.replaceAll(
-                DynamicProduct.Patterns.NUMBER.pattern(), ""));
+        BillingPeriod billingPeriod = BillingPeriod.parse(period);
         String formattedPeriod = period;
 
-        if (period.contains(DynamicProduct.Period.DAY)) {
-            formattedPeriod = periodCount > 1 ? String.format(
-                    context.getString(R.string.adb_price_days), periodCount)
-                    : context.getString(R.string.adb_price_day);
-        } else if (period.contains(DynamicProduct.Period.WEEK)) {
-            formattedPeriod = periodCount > 1 ? String.format(
-                    context.getString(R.string.adb_price_weeks), periodCount)
-                    : context.getString(R.string.adb_price_week);
-        } else if (period.contains(DynamicProduct.Period.MONTH)) {
-            formattedPeriod = periodCount > 1 ? String.format(
-                    context.getString(R.string.adb_price_months), periodCount)
-                    : context.getString(R.string.adb_price_month);
-        } else if (period.contains(DynamicProduct.Period.YEAR)) {
-            formattedPeriod = periodCount > 1 ? String.format(
-                    context.getString(R.string.adb_price_years), periodCount)
-                    : context.getString(R.string.adb_price_year);
+        if (billingPeriod != null) {
+            int periodCount = billingPeriod.getCount();
+            switch (billingPeriod.getUnit()) {
+                case BillingPeriod.Unit.DAY:
+                    formattedPeriod = periodCount > 1 ? String.format(
+                            context.getString(R.string.adb_price_days), periodCount)
+                            : context.getString(R.string.adb_price_day);
+                    break;
+                case BillingPeriod.Unit.WEEK:
+                    formattedPeriod = periodCount > 1 ? String.format(
+                            context.getString(R.string.adb_price_weeks), periodCount)
+                            : context.getString(R.string.adb_price_week);
+                    break;
+                case BillingPeriod.Unit.MONTH:
+                    formattedPeriod = periodCount > 1 ? String.format(
+                            context.getString(R.string.adb_price_months), periodCount)
+                            : context.getString(R.string.adb_price_month);
+                    break;
+                case BillingPeriod.Unit.YEAR:
+                    formattedPeriod = periodCount > 1 ? String.format(
+                            context.getString(R.string.adb_price_years), periodCount)
+                            : context.getString(R.string.adb_price_year);
+                    break;
+            }
         }
 
-        return String.format(context.getString(R.string.ads_format_blank_space),
-                formattedPrice, formattedPeriod);
+        return DynamicStringTemplate.get(context, R.string.ads_format_blank_space)
+                .format(formattedPrice, formattedPeriod);
     }
 
     /**
@@ -340,6 +730,32 @@ public class DynamicBillingUtils {
             return null;
         }
 
+        DisplayKey key = new DisplayKey(getLocale(context),
+                formattedPrice, period, cycleCount, VARIANT_PERIOD, null);
+        String string = sStringsCache.get(key);
+        if (string == null) {
+            string = formatStringForPeriod(context, formattedPrice, period, cycleCount);
+
+            if (string != null) {
+                sStringsCache.put(key, string);
+            }
+        }
+
+        return string;
+    }
+
+    /**
+     * Format a string based on the formatted price, period and cycle count.
+     *
+     * @param context The context to retrieve resources.
+     * @param formattedPrice The formatted price along with the currency symbol.
+     * @param period The ISO 8601 formatted pricing phase period.
+     * @param cycleCount The period cycle count.
+     *
+     * @return The string based on the formatted price, period and cycle count.
+     */
+    private static @Nullable String formatStringForPeriod(@NonNull Context context,
+            @NonNull String formattedPrice, @NonNull String period, int cycleCount) {
         if (DynamicProduct.Patterns.DIGIT.matcher(formattedPrice).matches()) {
             if (cycleCount == 1) {
                 return getStringForFirstCycle(
@@ -370,26 +786,56 @@ public class DynamicBillingUtils {
             return null;
         }
 
-        StringBuilder offerDetailsBuilder = new StringBuilder();
+        Locale locale = getLocale(context);
+        DisplayKey key = null;
+        for (int i = pricingPhases.size() - 1; i >= 0; i--) {
+            ProductDetails.PricingPhase pricingPhase = pricingPhases.get(i);
+            if (!withBase && pricingPhase.getBillingCycleCount() <= 0) {
+                continue;
+            }
+
+            key = new DisplayKey(locale, pricingPhase.getFormattedPrice(),
+                    pricingPhase.getBillingPeriod(), pricingPhase.getBillingCycleCount(),
+                    withBase ? VARIANT_PHASES_BASE : VARIANT_PHASES, key);
+        }
+
+        if (key == null) {
+            return "";
+        }
+
+        String string = sStringsCache.get(key);
+        if (string == null) {
+            string = formatPricingPhasesDetails(context, pricingPhases, withBase);
+            sStringsCache.put(key, string);
+        }
+
+        return string;
+    }
+
+    /**
+     * Format a string based on the offer pricing phase(s).
+     *
+     * @param context The context to retrieve resources.
+     * @param pricingPhases The pricing phases.
+     * @param withBase {@code true} to include base pricing phase.
+     *
+     * @return A string based on the offer pricing phase(s).
+     */
+    private static @NonNull String formatPricingPhasesDetails(@NonNull Context context,
+            @NonNull List<ProductDetails.PricingPhase> pricingPhases, boolean withBase) {
+        List<String> pricingPhasesInfo = new ArrayList<>(pricingPhases.size());
         for (ProductDetails.PricingPhase offerPricingPhase : pricingPhases) {
             if (!withBase && offerPricingPhase.getBillingCycleCount() <= 0) {
                 continue;
             }
 
-            String pricingPhaseInfo = getStringForPeriod(context,
+            pricingPhasesInfo.add(getStringForPeriod(context,
                     offerPricingPhase.getFormattedPrice(), offerPricingPhase.getBillingPeriod(),
-                    offerPricingPhase.getBillingCycleCount());
-
-            if (offerDetailsBuilder.length() > 0) {
-                offerDetailsBuilder.replace(0, offerDetailsBuilder.length(),
-                        String.format(context.getString(R.string.ads_format_next_line),
-                                offerDetailsBuilder, pricingPhaseInfo));
-            } else {
-                offerDetailsBuilder.append(pricingPhaseInfo);
-            }
+                    offerPricingPhase.getBillingCycleCount()));
         }
 
-        return offerDetailsBuilder.toString();
+        return DynamicStringTemplate.get(context, R.string.ads_format_next_line)
+                .fold(new StringBuilder(), pricingPhasesInfo).toString();
     }
 
     /**
@@ -464,21 +910,19 @@ public class DynamicBillingUtils {
                 discount = null;
             }
 
-            if (discount != null) {
-                offerDetailsBuilder.replace(0, offerDetailsBuilder.length(),
-                        String.format(context.getString(R.string.adb_offer_discount), discount));
-            }
-
             if (withBase) {
-                offerDetailsBuilder.replace(0, offerDetailsBuilder.length(),
-                        String.format(context.getString(R.string.ads_format_blank_space),
-                        offer.getFormattedPrice(), offerDetailsBuilder));
+                DynamicStringTemplate.get(context, R.string.ads_format_blank_space).append(
+                        offerDetailsBuilder, offer.getFormattedPrice(), discount == null ? ""
+                                : DynamicStringTemplate.get(context, R.string.adb_offer_discount)
+                                .format(discount, null));
+            } else if (discount != null) {
+                DynamicStringTemplate.get(context, R.string.adb_offer_discount)
+                        .append(offerDetailsBuilder, discount);
             }
 
             if (withValidity) {
-                offerDetailsBuilder.replace(0, offerDetailsBuilder.length(),
-                        String.format(context.getString(R.string.ads_format_next_line),
-                        offerDetailsBuilder, getOfferDetailsValidity(context, offer)));
+                DynamicStringTemplate.get(context, R.string.ads_format_next_line).wrap(
+                        offerDetailsBuilder, getOfferDetailsValidity(context, offer));
             }
         } else if (withBase) {
             offerDetailsBuilder.append(offer.getFormattedPrice());
@@ -505,10 +949,9 @@ public class DynamicBillingUtils {
 
         if (offer.getValidTimeWindow() != null
                 && offer.getValidTimeWindow().getEndTimeMillis() != null) {
-            offerDetailsBuilder.append(String.format(
-                    context.getString(R.string.adb_offer_validity),
-                    DynamicDeviceUtils.getDate(context,
-                            offer.getValidTimeWindow().getEndTimeMillis())));
+            DynamicStringTemplate.get(context, R.string.adb_offer_validity).append(
+                    offerDetailsBuilder, DynamicDeviceUtils.getDate(context,
+                            offer.getValidTimeWindow().getEndTimeMillis()));
         }
 
         return offerDetailsBuilder.toString();
@@ -532,21 +975,465 @@ public class DynamicBillingUtils {
         StringBuilder offerDetailsBuilder = new StringBuilder();
 
         if (offer.getRentalDetails() != null) {
-            offerDetailsBuilder.append(String.format(context.getString(R.string.adb_offer_rent),
-                    offer.getFormattedPrice(), getStringForValidityPeriod(context,
-                            offer.getRentalDetails().getRentalPeriod())));
+            DynamicStringTemplate.get(context, R.string.adb_offer_rent).append(
+                    offerDetailsBuilder, offer.getFormattedPrice(), getStringForValidityPeriod(
+                            context, offer.getRentalDetails().getRentalPeriod()));
 
             if (withExpiration && offer.getRentalDetails().getRentalExpirationPeriod() != null) {
-                offerDetailsBuilder.replace(0, offerDetailsBuilder.length(),
-                        String.format(context.getString(R.string.adb_offer_rent_expiration),
-                                offerDetailsBuilder, getStringForValidityPeriod(context,
-                                        offer.getRentalDetails().getRentalExpirationPeriod())));
+                DynamicStringTemplate.get(context, R.string.adb_offer_rent_expiration).wrap(
+                        offerDetailsBuilder, getStringForValidityPeriod(context,
+                                offer.getRentalDetails().getRentalExpirationPeriod()));
             }
         }
 
         return offerDetailsBuilder.toString();
     }
 
+    /**
+     * Returns the display information for all the offers of the supplied product.
+     *
+     * @param context The context to retrieve resources.
+     * @param productDetails The product details to retrieve the offers.
+     *
+     * @return The display information for all the offers of the supplied product.
+     */
+    public static @NonNull List<DynamicOffer> getOffers(@NonNull Context context,
+            @NonNull ProductDetails productDetails) {
+        List<DynamicOffer> offers = new ArrayList<>();
+
+        if (productDetails.getSubscriptionOfferDetails() != null) {
+            for (ProductDetails.SubscriptionOfferDetails offer
+                    : productDetails.getSubscriptionOfferDetails()) {
+                offers.add(new DynamicOffer(productDetails, offer.getBasePlanId(),
+                        offer.getOfferId(), offer.getOfferToken(), offer.getOfferTags(),
+                        getOfferDetails(context, offer, true),
+                        getOfferDetails(context, offer, false),
+                        getOfferDetailsBase(context, offer), null, null));
+            }
+        }
+
+        if (productDetails.getOneTimePurchaseOfferDetailsList() != null) {
+            for (ProductDetails.OneTimePurchaseOfferDetails offer
+                    : productDetails.getOneTimePurchaseOfferDetailsList()) {
+                offers.add(new DynamicOffer(productDetails, null,
+                        offer.getOfferId(), offer.getOfferToken(), offer.getOfferTags(),
+                        getOfferDetails(context, offer, true, true),
+                        getOfferDetails(context, offer, false, false),
+                        offer.getFormattedPrice(), getOfferDetailsValidity(context, offer),
+                        getRentalDetails(context, offer, true)));
+            }
+        }
+
+        return offers;
+    }
+
+    /**
+     * Returns the display information for all the offers of all the products in parallel.
+     * <p>The resources and templates are resolved once for the whole batch and the calling
+     * thread will be blocked until all the offers are formatted. If it is called from the
+     * {@link #getExecutor()}, the offers will be formatted on the calling thread to avoid
+     * waiting for the same executor.
+     * <p>The exception thrown while formatting any product will be thrown again to the
+     * calling thread.
+     *
+     * @param context The context to retrieve resources.
+     * @param result The query result to retrieve the products.
+     *
+     * @return The immutable display information for all the offers of all the products.
+     *
+     * @see #getOffersAsync(Context, QueryProductDetailsResult, DynamicOffersListener)
+     */
+    @WorkerThread
+    public static @NonNull List<DynamicOffer> getOffers(final @Nullable Context context,
+            @Nullable QueryProductDetailsResult result) {
+        if (context == null || result == null) {
+            return Collections.emptyList();
+        }
+
+        prepareOfferTemplates(context);
+
+        List<DynamicOffer> offers = new ArrayList<>();
+        if (isExecutorThread()) {
+            for (ProductDetails productDetails : result.getProductDetailsList()) {
+                offers.addAll(getOffers(context, productDetails));
+            }
+
+            return Collections.unmodifiableList(offers);
+        }
+
+        List<Callable<List<DynamicOffer>>> tasks = new ArrayList<>();
+        for (final ProductDetails productDetails : result.getProductDetailsList()) {
+            tasks.add(new Callable<List<DynamicOffer>>() {
+                @Override
+                public List<DynamicOffer> call() {
+                    return getOffers(context, productDetails);
+                }
+            });
+        }
+
+        try {
+            for (Future<List<DynamicOffer>> future : getExecutor().invokeAll(tasks)) {
+                try {
+                    offers.addAll(future.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Error) {
+                        throw (Error) e.getCause();
+                    }
+
+                    throw e.getCause() instanceof RuntimeException
+                            ? (RuntimeException) e.getCause()
+                            : new IllegalStateException(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return Collections.unmodifiableList(offers);
+    }
+
+    /**
+     * Format the display information for all the offers of all the products in parallel
+     * and deliver them on the main thread.
+     * <p>The listener will always be called, products which cannot be formatted will be
+     * logged and skipped.
+     *
+     * @param context The context to retrieve resources.
+     * @param result The query result to retrieve the products.
+     * @param listener The listener to receive the formatted offers.
+     *
+     * @see #getOffers(Context, QueryProductDetailsResult)
+     */
+    public static void getOffersAsync(final @Nullable Context context,
+            @Nullable QueryProductDetailsResult result,
+            final @NonNull DynamicOffersListener listener) {
+        if (context == null || result == null || result.getProductDetailsList().isEmpty()) {
+            listener.onOffersFormatted(Collections.<DynamicOffer>emptyList());
+
+            return;
+        }
+
+        prepareOfferTemplates(context);
+
+        final List<ProductDetails> productDetailsList =
+                new ArrayList<>(result.getProductDetailsList());
+        final AtomicReferenceArray<List<DynamicOffer>> parts =
+                new AtomicReferenceArray<>(productDetailsList.size());
+        final AtomicInteger remaining = new AtomicInteger(productDetailsList.size());
+
+        for (int i = 0; i < productDetailsList.size(); i++) {
+            final int index = i;
+            getExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        parts.set(index, getOffers(context, productDetailsList.get(index)));
+                    } catch (RuntimeException e) {
+                        Log.e(TAG, "Unable to format the offers for "
+                                + productDetailsList.get(index).getProductId(), e);
+                    } finally {
+                        if (remaining.decrementAndGet() == 0) {
+                            deliverOffers(parts, listener);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Merge the formatted offers and deliver them on the main thread.
+     *
+     * @param parts The formatted offers for each product, {@code null} if it has failed.
+     * @param listener The listener to receive the formatted offers.
+     */
+    private static void deliverOffers(@NonNull AtomicReferenceArray<List<DynamicOffer>> parts,
+            final @NonNull DynamicOffersListener listener) {
+        List<DynamicOffer> offers = new ArrayList<>();
+        for (int i = 0; i < parts.length(); i++) {
+            if (parts.get(i) != null) {
+                offers.addAll(parts.get(i));
+            }
+        }
+
+        final List<DynamicOffer> formatted = Collections.unmodifiableList(offers);
+        sMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                listener.onOffersFormatted(formatted);
+            }
+        });
+    }
+
+    /**
+     * Resolve the templates used to format the offers so that they can be shared by
+     * the whole batch.
+     *
+     * @param context The context to retrieve resources.
+     */
+    private static void prepareOfferTemplates(@NonNull Context context) {
+        DynamicStringTemplate.get(context, R.string.ads_format_next_line);
+        DynamicStringTemplate.get(context, R.string.ads_format_blank_space);
+        DynamicStringTemplate.get(context, R.string.adb_offer_discount);
+        DynamicStringTemplate.get(context, R.string.adb_offer_validity);
+        DynamicStringTemplate.get(context, R.string.adb_offer_rent);
+        DynamicStringTemplate.get(context, R.string.adb_offer_rent_expiration);
+    }
+
+    /**
+     * Put the supplied products into the intent to launch the billing activity.
+     * <p>The product and feature graph will be encoded into a single intent extra by using
+     * the {@link DynamicCatalogCodec}, so that it can survive the activity and process
+     * recreation. If the activity will run in the same process, the products will also be
+     * pinned in the {@link DynamicCatalogRegistry} to avoid decoding them.
+     *
+     * @param context The context to resolve the activity.
+     * @param intent The intent to put the products.
+     * @param inApp The in-app products.
+     * @param subs The subscription products.
+     * @param external The external products.
+     * @param disableSubs The products to disable subscriptions.
+     *
+     * @return The supplied intent to allow for chaining of calls.
+     *
+     * @see #getProducts(Intent, String)
+     */
+    public static @NonNull Intent putProducts(@NonNull Context context, @NonNull Intent intent,
+            @Nullable List<? extends DynamicProduct> inApp,
+            @Nullable List<? extends DynamicProduct> subs,
+            @Nullable List<? extends DynamicProduct> external,
+            @Nullable List<? extends DynamicProduct> disableSubs) {
+        Map<String, List<? extends DynamicProduct>> products = new HashMap<>();
+        products.put(EXTRA_PRODUCTS_INAPP, inApp);
+        products.put(EXTRA_PRODUCTS_SUBS, subs);
+        products.put(EXTRA_PRODUCTS_EXTERNAL, external);
+        products.put(EXTRA_PRODUCTS_DISABLE_SUBS, disableSubs);
+
+        intent.putExtra(EXTRA_CATALOG, encodeCatalog(products));
+        if (isSameProcess(context, intent)) {
+            intent.putExtra(EXTRA_CATALOG_ID, DynamicCatalogRegistry.pin(products));
+            intent.putExtra(EXTRA_CATALOG_PID, Process.myPid());
+        }
+
+        return intent;
+    }
+
+    /**
+     * Returns the products from the intent used to launch the billing activity.
+     * <p>If the pinned catalog is not available like after the process has been recreated
+     * or it has been evicted, the encoded catalog will be decoded and pinned again for the
+     * supplied intent.
+     * <p>The returned products are always unmodifiable.
+     *
+     * @param intent The intent to get the products.
+     * @param extra The intent extra for the products.
+     *
+     * @return The unmodifiable products from the intent, otherwise {@code null} if they
+     *         were not put into the intent.
+     *
+     * @see #putProducts(Context, Intent, List, List, List, List)
+     */
+    @SuppressWarnings("deprecation")
+    public static @Nullable List<DynamicProduct> getProducts(
+            @Nullable Intent intent, @NonNull String extra) {
+        if (intent == null) {
+            return null;
+        }
+
+        if (intent.hasExtra(EXTRA_CATALOG_ID)
+                && intent.getIntExtra(EXTRA_CATALOG_PID, 0) == Process.myPid()) {
+            long id = intent.getLongExtra(EXTRA_CATALOG_ID, 0);
+            if (DynamicCatalogRegistry.contains(id)) {
+                return DynamicCatalogRegistry.get(id, extra);
+            }
+        }
+
+        byte[] data = intent.getByteArrayExtra(EXTRA_CATALOG);
+        if (data != null) {
+            try {
+                Map<String, List<DynamicProduct>> products = decodeCatalog(data);
+                intent.putExtra(EXTRA_CATALOG_ID, DynamicCatalogRegistry.pin(products));
+                intent.putExtra(EXTRA_CATALOG_PID, Process.myPid());
+
+                return products.get(extra) != null
+                        ? Collections.unmodifiableList(products.get(extra)) : null;
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+
+        List<DynamicProduct> products = intent.getParcelableArrayListExtra(extra);
+        return products != null ? Collections.unmodifiableList(products) : null;
+    }
+
+    /**
+     * Encode the supplied product lists along with their features.
+     * <p>Products and features are indexed by their identity, so the shared objects will be
+     * shared after decoding as well.
+     *
+     * @param products The product lists mapped with their intent extra.
+     *
+     * @return The encoded catalog.
+     *
+     * @see #decodeCatalog(byte[])
+     */
+    private static @NonNull byte[] encodeCatalog(
+            @NonNull Map<String, List<? extends DynamicProduct>> products) {
+        DynamicCatalogCodec.Writer writer = new DynamicCatalogCodec.Writer();
+        Map<DynamicProduct, Integer> productIndexes = new IdentityHashMap<>();
+        Map<DynamicFeature, Integer> featureIndexes = new IdentityHashMap<>();
+
+        for (Map.Entry<String, List<? extends DynamicProduct>> entry : products.entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+
+            int[] list = new int[entry.getValue().size()];
+            for (int i = 0; i < list.length; i++) {
+                list[i] = encodeProduct(writer, entry.getValue().get(i),
+                        productIndexes, featureIndexes);
+            }
+
+            writer.putList(entry.getKey(), list);
+        }
+
+        return writer.toByteArray();
+    }
+
+    /**
+     * Encode the supplied product along with its features, if not already encoded.
+     *
+     * @param writer The writer to encode the product.
+     * @param product The product to be encoded.
+     * @param productIndexes The indexes of the already encoded products.
+     * @param featureIndexes The indexes of the already encoded features.
+     *
+     * @return The index of the encoded product.
+     */
+    private static int encodeProduct(@NonNull DynamicCatalogCodec.Writer writer,
+            @NonNull DynamicProduct product,
+            @NonNull Map<DynamicProduct, Integer> productIndexes,
+            @NonNull Map<DynamicFeature, Integer> featureIndexes) {
+        Integer index = productIndexes.get(product);
+        if (index != null) {
+            return index;
+        }
+
+        index = writer.addProduct(product.getId(),
+                product.getType(), product.isSubscriptions());
+        productIndexes.put(product, index);
+
+        for (DynamicFeature feature : product.getFeatures()) {
+            Integer featureIndex = featureIndexes.get(feature);
+            if (featureIndex == null) {
+                featureIndex = writer.addFeature(feature.getId(), feature.getIcon(),
+                        feature.getTitle(), feature.getSubtitle(), feature.isEnabled());
+                featureIndexes.put(feature, featureIndex);
+
+                for (DynamicProduct featureProduct : feature.getProducts()) {
+                    writer.addFeatureProduct(featureIndex, encodeProduct(writer,
+                            featureProduct, productIndexes, featureIndexes));
+                }
+            }
+
+            writer.addProductFeature(index, featureIndex);
+        }
+
+        return index;
+    }
+
+    /**
+     * Decode the product lists along with their features.
+     *
+     * @param data The encoded catalog.
+     *
+     * @return The decoded product lists mapped with their intent extra.
+     *
+     * @throws IllegalArgumentException If the supplied data is not a valid catalog.
+     *
+     * @see #encodeCatalog(Map)
+     */
+    private static @NonNull Map<String, List<DynamicProduct>> decodeCatalog(
+            @NonNull byte[] data) {
+        DynamicCatalogCodec.Reader reader = new DynamicCatalogCodec.Reader(data);
+        DynamicProduct[] products = new DynamicProduct[reader.getProductCount()];
+        DynamicFeature[] features = new DynamicFeature[reader.getFeatureCount()];
+
+        for (int i = 0; i < products.length; i++) {
+            products[i] = new DynamicProduct(reader.getProductId(i),
+                    reader.getProductType(i), reader.isSubscriptions(i));
+        }
+
+        for (int i = 0; i < features.length; i++) {
+            int[] indexes = reader.getFeatureProducts(i);
+            List<DynamicProduct> featureProducts = new ArrayList<>(indexes.length);
+            for (int index : indexes) {
+                featureProducts.add(products[index]);
+            }
+
+            features[i] = new DynamicFeature(reader.getFeatureId(i),
+                    reader.getFeatureIcon(i), reader.getFeatureTitle(i),
+                    reader.getFeatureSubtitle(i), featureProducts, reader.isFeatureEnabled(i));
+        }
+
+        for (int i = 0; i < products.length; i++) {
+            for (int index : reader.getProductFeatures(i)) {
+                products[i].getFeatures().add(features[index]);
+            }
+        }
+
+        Map<String, List<DynamicProduct>> catalog = new HashMap<>();
+        for (String extra : new String[] { EXTRA_PRODUCTS_INAPP, EXTRA_PRODUCTS_SUBS,
+                EXTRA_PRODUCTS_EXTERNAL, EXTRA_PRODUCTS_DISABLE_SUBS }) {
+            int[] indexes = reader.getList(extra);
+            if (indexes == null) {
+                continue;
+            }
+
+            List<DynamicProduct> list = new ArrayList<>(indexes.length);
+            for (int index : indexes) {
+                list.add(products[index]);
+            }
+
+            catalog.put(extra, list);
+        }
+
+        return catalog;
+    }
+
+    /**
+     * Release the catalog pinned for the supplied intent, if any.
+     * <p>It should be called when the billing activity is finishing.
+     *
+     * @param intent The intent used to launch the billing activity.
+     */
+    public static void releaseProducts(@Nullable Intent intent) {
+        if (intent != null && intent.hasExtra(EXTRA_CATALOG_ID)
+                && intent.getIntExtra(EXTRA_CATALOG_PID, 0) == Process.myPid()) {
+            DynamicCatalogRegistry.release(intent.getLongExtra(EXTRA_CATALOG_ID, 0));
+        }
+    }
+
+    /**
+     * Checks whether the activity for the supplied intent will run in the current process.
+     *
+     * @param context The context to resolve the activity.
+     * @param intent The intent to be resolved.
+     *
+     * @return {@code true} if the activity for the supplied intent will run in the
+     *         current process.
+     */
+    private static boolean isSameProcess(@NonNull Context context, @NonNull Intent intent) {
+        ResolveInfo resolveInfo = context.getPackageManager().resolveActivity(intent, 0);
+        if (resolveInfo == null || resolveInfo.activityInfo == null) {
+            return false;
+        }
+
+        ActivityInfo activityInfo = resolveInfo.activityInfo;
+        return context.getPackageName().equals(activityInfo.packageName)
+                && Objects.equals(context.getApplicationInfo().processName,
+                activityInfo.processName);
+    }
+
     /**
      * Try to launch manage account flow for Google Play.
      *
@@ -583,4 +1470,324 @@ public class DynamicBillingUtils {
     public static void viewGooglePlayOrderHistory(@NonNull Context context) {
         DynamicLinkUtils.viewUrl(context, URL_GOOGLE_PLAY_ORDER_HISTORY);
     }
+
+    /**
+     * A class to represent the key for the cached display strings.
+     */
+    private static final class DisplayKey {
+
+        /**
+         * Locale used to format the string.
+         */
+        private final Locale locale;
+
+        /**
+         * Formatted price used to format the string.
+         */
+        private final String price;
+
+        /**
+         * ISO 8601 period used to format the string.
+         */
+        private final String period;
+
+        /**
+         * Period cycle count used to format the string.
+         */
+        private final int cycleCount;
+
+        /**
+         * Variant of the display string.
+         */
+        private final int variant;
+
+        /**
+         * Key for the next pricing phase, if any.
+         */
+        private final DisplayKey next;
+
+        /**
+         * Pre-computed hash code for this key.
+         */
+        private final int hash;
+
+        /**
+         * Constructor to initialize an object of this class.
+         *
+         * @param locale The locale used to format the string.
+         * @param price The formatted price used to format the string.
+         * @param period The ISO 8601 period used to format the string.
+         * @param cycleCount The period cycle count used to format the string.
+         * @param variant The variant of the display string.
+         * @param next The key for the next pricing phase, if any.
+         */
+        DisplayKey(@NonNull Locale locale, @Nullable String price, @Nullable String period,
+                int cycleCount, int variant, @Nullable DisplayKey next) {
+            this.locale = locale;
+            this.price = price;
+            this.period = period;
+            this.cycleCount = cycleCount;
+            this.variant = variant;
+            this.next = next;
+
+            int hash = locale.hashCode();
+            hash = 31 * hash + (price != null ? price.hashCode() : 0);
+            hash = 31 * hash + (period != null ? period.hashCode() : 0);
+            hash = 31 * hash + cycleCount;
+            hash = 31 * hash + variant;
+            hash = 31 * hash + (next != null ? next.hash : 0);
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof DisplayKey)) {
+                return false;
+            }
+
+            DisplayKey key = (DisplayKey) obj;
+            return hash == key.hash && cycleCount == key.cycleCount && variant == key.variant
+                    && locale.equals(key.locale) && Objects.equals(price, key.price)
+                    && Objects.equals(period, key.period) && Objects.equals(next, key.next);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * A span to mark the feature icons in the cached feature strings.
+     */
+    private static final class IconSpan {
+
+        /**
+         * Drawable resource for the icon.
+         */
+        private final @DrawableRes int icon;
+
+        /**
+         * Constructor to initialize an object of this class.
+         *
+         * @param icon The drawable resource for the icon.
+         */
+        IconSpan(@DrawableRes int icon) {
+            this.icon = icon;
+        }
+    }
+
+    /**
+     * A class to represent the configuration and theme used to resolve the resources.
+     */
+    private static final class ThemeKey {
+
+        /**
+         * Screen density used to resolve the resources.
+         */
+        private final int density;
+
+        /**
+         * UI mode used to resolve the resources.
+         */
+        private final int uiMode;
+
+        /**
+         * Theme used to resolve the resources.
+         */
+        private final WeakReference<Resources.Theme> theme;
+
+        /**
+         * Pre-computed hash code for this key.
+         */
+        private final int hash;
+
+        /**
+         * Constructor to initialize an object of this class.
+         *
+         * @param context The context to get the configuration and theme.
+         */
+        ThemeKey(@NonNull Context context) {
+            Configuration configuration = context.getResources().getConfiguration();
+            Resources.Theme theme = context.getTheme();
+
+            this.density = configuration.densityDpi;
+            this.uiMode = configuration.uiMode;
+            this.theme = new WeakReference<>(theme);
+            this.hash = 31 * (31 * density + uiMode) + System.identityHashCode(theme);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof ThemeKey)) {
+                return false;
+            }
+
+            ThemeKey key = (ThemeKey) obj;
+            return hash == key.hash && density == key.density && uiMode == key.uiMode
+                    && theme.get() != null && theme.get() == key.theme.get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * A class to represent the key for the cached tinted drawables.
+     */
+    private static final class DrawableKey {
+
+        /**
+         * Drawable resource for the drawable.
+         */
+        private final @DrawableRes int drawableRes;
+
+        /**
+         * Color to tint the drawable.
+         */
+        private final @ColorInt int color;
+
+        /**
+         * Size in pixels for the drawable bounds.
+         */
+        private final int size;
+
+        /**
+         * Configuration and theme to resolve the drawable.
+         */
+        private final ThemeKey theme;
+
+        /**
+         * Constructor to initialize an object of this class.
+         *
+         * @param drawableRes The drawable resource for the drawable.
+         * @param color The color to tint the drawable.
+         * @param size The size in pixels for the drawable bounds.
+         * @param theme The configuration and theme to resolve the drawable.
+         */
+        DrawableKey(@DrawableRes int drawableRes, @ColorInt int color, int size,
+                @NonNull ThemeKey theme) {
+            this.drawableRes = drawableRes;
+            this.color = color;
+            this.size = size;
+            this.theme = theme;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof DrawableKey)) {
+                return false;
+            }
+
+            DrawableKey key = (DrawableKey) obj;
+            return drawableRes == key.drawableRes && color == key.color && size == key.size
+                    && theme.equals(key.theme);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * (31 * drawableRes + color) + size) + theme.hashCode();
+        }
+    }
+
+    /**
+     * A class to represent the key for the cached feature strings.
+     */
+    private static final class FeaturesKey {
+
+        /**
+         * Locale used to build the feature string.
+         */
+        private final Locale locale;
+
+        /**
+         * Configuration and theme used to build the feature string.
+         */
+        private final ThemeKey theme;
+
+        /**
+         * Icon, title and subtitle resources for each feature.
+         */
+        private final int[] resources;
+
+        /**
+         * Color to tint the icon drawables.
+         */
+        private final @ColorInt int color;
+
+        /**
+         * Flags to include the icons and subtitles.
+         */
+        private final int flags;
+
+        /**
+         * Pre-computed hash code for this key.
+         */
+        private final int hash;
+
+        /**
+         * Constructor to initialize an object of this class.
+         *
+         * @param locale The locale used to build the feature string.
+         * @param theme The configuration and theme used to build the feature string.
+         * @param features The features to build the feature string.
+         * @param color The color to tint the icon drawables.
+         * @param icons {@code true} to include the icons.
+         * @param withSubtitle {@code true} to include the subtitles.
+         */
+        FeaturesKey(@NonNull Locale locale, @NonNull ThemeKey theme,
+                @NonNull List<DynamicFeature> features,
+                @ColorInt int color, boolean icons, boolean withSubtitle) {
+            this.locale = locale;
+            this.theme = theme;
+            this.resources = new int[features.size() * 3];
+            this.color = color;
+            this.flags = (icons ? 1 : 0) | (withSubtitle ? 2 : 0);
+
+            for (int i = 0; i < features.size(); i++) {
+                DynamicFeature feature = features.get(i);
+                resources[i * 3] = feature.getIcon();
+                resources[i * 3 + 1] = feature.getTitle();
+                resources[i * 3 + 2] = feature.getSubtitle();
+            }
+
+            this.hash = 31 * (31 * (31 * (31 * locale.hashCode() + theme.hashCode())
+                    + Arrays.hashCode(resources)) + color) + flags;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof FeaturesKey)) {
+                return false;
+            }
+
+            FeaturesKey key = (FeaturesKey) obj;
+            return hash == key.hash && color == key.color && flags == key.flags
+                    && locale.equals(key.locale) && theme.equals(key.theme)
+                    && Arrays.equals(resources, key.resources);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
 }
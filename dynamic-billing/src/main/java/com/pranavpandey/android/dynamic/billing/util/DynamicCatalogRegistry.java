@@ -0,0 +1,149 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.pranavpandey.android.dynamic.billing.model.base.DynamicProduct;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A registry to pin the product and feature graph in the process memory, so that only
+ * a small catalog id can be passed to the billing activity instead of parceling the
+ * product lists.
+ * <p>Catalogs are held until they are released or evicted by the newer catalogs, an evicted
+ * catalog will be decoded again from the intent that launched the billing activity.
+ *
+ * @see DynamicBillingUtils#putProducts(android.content.Context, android.content.Intent,
+ *      List, List, List, List)
+ */
+public final class DynamicCatalogRegistry {
+
+    /**
+     * Maximum number of catalogs to be pinned at a time.
+     */
+    public static final int MAX_CATALOGS = 8;
+
+    /**
+     * Counter to generate the catalog ids.
+     */
+    private static final AtomicLong sIds = new AtomicLong();
+
+    /**
+     * Map to hold the pinned catalogs mapped with their id.
+     */
+    private static final Map<Long, Map<String, List<DynamicProduct>>> sCatalogs =
+            new LinkedHashMap<Long, Map<String, List<DynamicProduct>>>(
+                    MAX_CATALOGS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(
+                Map.Entry<Long, Map<String, List<DynamicProduct>>> eldest) {
+            return size() > MAX_CATALOGS;
+        }
+    };
+
+    /**
+     * Making default constructor private so that it cannot be initialized.
+     */
+    private DynamicCatalogRegistry() { }
+
+    /**
+     * Pin the supplied product lists in the process memory.
+     *
+     * @param products The product lists mapped with their intent extra.
+     *
+     * @return The id of the pinned catalog.
+     */
+    public static long pin(
+            @NonNull Map<String, ? extends List<? extends DynamicProduct>> products) {
+        Map<String, List<DynamicProduct>> catalog = new HashMap<>();
+        for (Map.Entry<String, ? extends List<? extends DynamicProduct>> entry
+                : products.entrySet()) {
+            if (entry.getValue() != null) {
+                catalog.put(entry.getKey(), Collections.unmodifiableList(
+                        new ArrayList<DynamicProduct>(entry.getValue())));
+            }
+        }
+
+        long id = sIds.incrementAndGet();
+        synchronized (sCatalogs) {
+            sCatalogs.put(id, Collections.unmodifiableMap(catalog));
+        }
+
+        return id;
+    }
+
+    /**
+     * Returns whether the supplied catalog is still pinned.
+     *
+     * @param id The id of the catalog.
+     *
+     * @return {@code true} if the supplied catalog is still pinned.
+     */
+    public static boolean contains(long id) {
+        synchronized (sCatalogs) {
+            return sCatalogs.containsKey(id);
+        }
+    }
+
+    /**
+     * Returns the pinned product list for the supplied catalog and intent extra.
+     *
+     * @param id The id of the catalog.
+     * @param extra The intent extra for the product list.
+     *
+     * @return The pinned product list, otherwise {@code null} if the catalog or the list
+     *         is not available.
+     */
+    public static @Nullable List<DynamicProduct> get(long id, @NonNull String extra) {
+        Map<String, List<DynamicProduct>> catalog;
+        synchronized (sCatalogs) {
+            catalog = sCatalogs.get(id);
+        }
+
+        return catalog != null ? catalog.get(extra) : null;
+    }
+
+    /**
+     * Release the supplied catalog from the process memory.
+     * <p>It should be called when the billing activity is finishing.
+     *
+     * @param id The id of the catalog to be released.
+     */
+    public static void release(long id) {
+        synchronized (sCatalogs) {
+            sCatalogs.remove(id);
+        }
+    }
+
+    /**
+     * Release all the pinned catalogs.
+     */
+    public static void clear() {
+        synchronized (sCatalogs) {
+            sCatalogs.clear();
+        }
+    }
+}
@@ -0,0 +1,353 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.util;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.annotation.LayoutRes;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A pool to inflate the views ahead of time on a background looper.
+ * <p>It can be used to inflate the feature cards before a paywall is opened, the binders
+ * will take the views from this pool before falling back to the synchronous inflation.
+ *
+ * <p>Views are inflated with the supplied context, so the views inflated for an activity
+ * will be discarded automatically when it is destroyed.
+ *
+ * @see #prefetch(Context, int, int)
+ * @see #acquire(Context, int)
+ */
+public final class DynamicInflationPool {
+
+    /**
+     * Maximum number of views to be pooled for a layout.
+     */
+    public static final int MAX_VIEWS = 16;
+
+    /**
+     * Tag to log the failed inflations.
+     */
+    private static final String TAG = "DynamicInflationPool";
+
+    /**
+     * Lock to access the pooled views.
+     */
+    private static final Object sLock = new Object();
+
+    /**
+     * Map to hold the pooled views mapped with their layout resource.
+     */
+    private static final Map<Integer, Deque<View>> sViews = new HashMap<>();
+
+    /**
+     * Map to hold the number of pending inflations mapped with their layout resource.
+     */
+    private static final Map<Integer, Integer> sPending = new HashMap<>();
+
+    /**
+     * Background handler to inflate the views.
+     */
+    private static Handler sHandler;
+
+    /**
+     * {@code true} if the activity callbacks have been registered to discard the views.
+     */
+    private static boolean sCallbacks;
+
+    /**
+     * Making default constructor private so that it cannot be initialized.
+     */
+    private DynamicInflationPool() { }
+
+    /**
+     * Returns the background handler to inflate the views.
+     *
+     * @return The background handler to inflate the views.
+     */
+    private static @NonNull Handler getHandler() {
+        synchronized (sLock) {
+            if (sHandler == null) {
+                HandlerThread thread = new HandlerThread("DynamicBilling Inflater",
+                        Process.THREAD_PRIORITY_BACKGROUND);
+                thread.start();
+                sHandler = new Handler(thread.getLooper());
+            }
+
+            return sHandler;
+        }
+    }
+
+    /**
+     * Register the activity callbacks to discard the views of the destroyed activities.
+     *
+     * @param context The context to get the application.
+     */
+    private static void registerCallbacks(@NonNull Context context) {
+        synchronized (sLock) {
+            if (sCallbacks || !(context.getApplicationContext() instanceof Application)) {
+                return;
+            }
+
+            sCallbacks = true;
+        }
+
+        ((Application) context.getApplicationContext()).registerActivityLifecycleCallbacks(
+                new Application.ActivityLifecycleCallbacks() {
+            @Override
+            public void onActivityCreated(@NonNull Activity activity,
+                    @Nullable Bundle savedInstanceState) { }
+
+            @Override
+            public void onActivityStarted(@NonNull Activity activity) { }
+
+            @Override
+            public void onActivityResumed(@NonNull Activity activity) { }
+
+            @Override
+            public void onActivityPaused(@NonNull Activity activity) { }
+
+            @Override
+            public void onActivityStopped(@NonNull Activity activity) { }
+
+            @Override
+            public void onActivitySaveInstanceState(@NonNull Activity activity,
+                    @NonNull Bundle outState) { }
+
+            @Override
+            public void onActivityDestroyed(@NonNull Activity activity) {
+                clear(activity);
+            }
+        });
+    }
+
+    /**
+     * Returns the activity for the supplied context.
+     *
+     * @param context The context to be unwrapped.
+     *
+     * @return The activity for the supplied context, otherwise {@code null}.
+     */
+    private static @Nullable Activity getActivity(@Nullable Context context) {
+        while (context instanceof ContextWrapper) {
+            if (context instanceof Activity) {
+                return (Activity) context;
+            }
+
+            context = ((ContextWrapper) context).getBaseContext();
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns whether the activity of the supplied context has been destroyed.
+     *
+     * @param context The context to be checked.
+     *
+     * @return {@code true} if the activity of the supplied context has been destroyed.
+     */
+    private static boolean isDestroyed(@NonNull Context context) {
+        Activity activity = getActivity(context);
+        return activity != null && activity.isDestroyed();
+    }
+
+    /**
+     * Returns the number of pooled and pending views for the supplied layout.
+     *
+     * @param layoutRes The layout resource to be checked.
+     *
+     * @return The number of pooled and pending views for the supplied layout.
+     */
+    private static int getCount(@LayoutRes int layoutRes) {
+        Deque<View> views = sViews.get(layoutRes);
+        Integer pending = sPending.get(layoutRes);
+
+        return (views != null ? views.size() : 0) + (pending != null ? pending : 0);
+    }
+
+    /**
+     * Inflate the supplied layout ahead of time on a background looper.
+     * <p>Views already pooled or pending for the layout are counted towards the
+     * supplied count. A cloned inflater is used, so that the inflation on the main thread
+     * is not blocked by the shared inflater of the context.
+     * <p>Views which cannot be inflated will be logged and inflated again on the main
+     * thread when they are acquired.
+     *
+     * @param context The context to inflate the views.
+     * @param layoutRes The layout resource to be inflated.
+     * @param count The number of views to be pooled.
+     */
+    public static void prefetch(final @NonNull Context context,
+            final @LayoutRes int layoutRes, int count) {
+        final int required;
+        synchronized (sLock) {
+            required = Math.min(count, MAX_VIEWS) - getCount(layoutRes);
+            if (required <= 0) {
+                return;
+            }
+
+            Integer pending = sPending.get(layoutRes);
+            sPending.put(layoutRes, (pending != null ? pending : 0) + required);
+        }
+
+        registerCallbacks(context);
+        getHandler().post(new Runnable() {
+            @Override
+            public void run() {
+                LayoutInflater inflater = LayoutInflater.from(context).cloneInContext(context);
+                FrameLayout parent = new FrameLayout(context);
+
+                for (int i = 0; i < required; i++) {
+                    View view = null;
+                    try {
+                        view = inflater.inflate(layoutRes, parent, false);
+                    } catch (RuntimeException e) {
+                        Log.w(TAG, "Unable to prefetch the layout " + layoutRes, e);
+                    }
+
+                    synchronized (sLock) {
+                        Integer pending = sPending.get(layoutRes);
+                        if (pending == null) {
+                            return;
+                        }
+
+                        if (pending <= 1) {
+                            sPending.remove(layoutRes);
+                        } else {
+                            sPending.put(layoutRes, pending - 1);
+                        }
+
+                        if (view == null || isDestroyed(context)) {
+                            continue;
+                        }
+
+                        Deque<View> views = sViews.get(layoutRes);
+                        if (views == null) {
+                            views = new ArrayDeque<>();
+                            sViews.put(layoutRes, views);
+                        }
+
+                        views.add(view);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns a pooled view for the supplied layout.
+     * <p>Views inflated with a different context will be discarded.
+     *
+     * @param context The context of the parent view.
+     * @param layoutRes The layout resource to be acquired.
+     *
+     * @return A pooled view for the supplied layout, otherwise {@code null} to inflate it
+     *         synchronously.
+     */
+    @MainThread
+    public static @Nullable View acquire(@NonNull Context context, @LayoutRes int layoutRes) {
+        synchronized (sLock) {
+            Deque<View> views = sViews.get(layoutRes);
+            if (views == null) {
+                return null;
+            }
+
+            View view;
+            while ((view = views.poll()) != null) {
+                if (view.getContext() == context && view.getParent() == null) {
+                    return view;
+                }
+            }
+
+            sViews.remove(layoutRes);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the number of pooled views for the supplied layout.
+     *
+     * @param layoutRes The layout resource to be checked.
+     *
+     * @return The number of pooled views for the supplied layout.
+     */
+    public static int size(@LayoutRes int layoutRes) {
+        synchronized (sLock) {
+            Deque<View> views = sViews.get(layoutRes);
+            return views != null ? views.size() : 0;
+        }
+    }
+
+    /**
+     * Clear the pooled views inflated with the supplied context or its activity.
+     * <p>It will be called automatically when an activity is destroyed.
+     *
+     * @param context The context used to inflate the views.
+     */
+    public static void clear(@NonNull Context context) {
+        Activity activity = getActivity(context);
+
+        synchronized (sLock) {
+            Iterator<Deque<View>> iterator = sViews.values().iterator();
+            while (iterator.hasNext()) {
+                Deque<View> views = iterator.next();
+                Iterator<View> viewIterator = views.iterator();
+                while (viewIterator.hasNext()) {
+                    Context viewContext = viewIterator.next().getContext();
+                    if (viewContext == context || (activity != null
+                            && getActivity(viewContext) == activity)) {
+                        viewIterator.remove();
+                    }
+                }
+
+                if (views.isEmpty()) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Clear all the pooled and pending views.
+     */
+    public static void clear() {
+        synchronized (sLock) {
+            sViews.clear();
+            sPending.clear();
+        }
+    }
+}
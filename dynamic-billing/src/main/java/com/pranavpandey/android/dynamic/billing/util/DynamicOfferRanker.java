@@ -0,0 +1,539 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.android.billingclient.api.ProductDetails;
+import com.pranavpandey.android.dynamic.billing.model.BillingPeriod;
+import com.pranavpandey.android.dynamic.billing.model.DynamicPriceCatalog;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A helper class to rank the product offers by normalizing their pricing phases to the
+ * price per day in micros.
+ * <p>It works on the {@link ProductDetails.PricingPhase#getPriceAmountMicros()} and the
+ * parsed billing periods by using the pure long arithmetic, so that the best offer or the
+ * savings between two plans can be computed without parsing any formatted price.
+ */
+public class DynamicOfferRanker {
+
+    /**
+     * Constant value for the unknown index or price.
+     */
+    public static final int UNKNOWN = -1;
+
+    /**
+     * Number of seconds in a day.
+     */
+    public static final long SECONDS_DAY = BillingPeriod.MILLIS_DAY / 1000;
+
+    /**
+     * Default horizon in seconds to compare the offers, one year.
+     */
+    public static final long DEFAULT_HORIZON = BillingPeriod.MILLIS_YEAR / 1000;
+
+    /**
+     * Default initial capacity for the offers.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Horizon in seconds to compare the offers.
+     */
+    private final long mHorizon;
+
+    /**
+     * Number of offers added to this ranker.
+     */
+    private int mSize;
+
+    /**
+     * Product id for each offer.
+     */
+    private String[] mProductIds;
+
+    /**
+     * Base plan id for each offer, {@code null} for the one-time offers.
+     */
+    private String[] mBasePlanIds;
+
+    /**
+     * Offer id for each offer, {@code null} for the base offers.
+     */
+    private String[] mOfferIds;
+
+    /**
+     * Offer token for each offer.
+     */
+    private String[] mOfferTokens;
+
+    /**
+     * Effective price per day in micros for each offer over the horizon.
+     */
+    private long[] mEffectivePrices;
+
+    /**
+     * Recurring price per day in micros for each offer after all the intro phases.
+     */
+    private long[] mRecurringPrices;
+
+    /**
+     * Constructor to initialize an object of this class.
+     */
+    public DynamicOfferRanker() {
+        this(DEFAULT_HORIZON);
+    }
+
+    /**
+     * Constructor to initialize an object of this class.
+     *
+     * @param horizon The horizon in seconds to compare the offers, it is also used to
+     *                amortize the one-time products like lifetime.
+     */
+    public DynamicOfferRanker(long horizon) {
+        this.mHorizon = Math.max(SECONDS_DAY, horizon);
+        this.mProductIds = new String[DEFAULT_CAPACITY];
+        this.mBasePlanIds = new String[DEFAULT_CAPACITY];
+        this.mOfferIds = new String[DEFAULT_CAPACITY];
+        this.mOfferTokens = new String[DEFAULT_CAPACITY];
+        this.mEffectivePrices = new long[DEFAULT_CAPACITY];
+        this.mRecurringPrices = new long[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Constructor to initialize an object of this class.
+     *
+     * @param catalog The compact catalog to rank its offers.
+     */
+    public DynamicOfferRanker(@NonNull DynamicPriceCatalog catalog) {
+        this(DEFAULT_HORIZON);
+
+        addAll(catalog);
+    }
+
+    /**
+     * Returns the price per day in micros for the supplied price and period.
+     *
+     * @param priceMicros The price in micros.
+     * @param period The billing period for the price.
+     *
+     * @return The price per day in micros, otherwise {@link #UNKNOWN} if the period is empty.
+     */
+    public static long getPricePerDay(long priceMicros, @Nullable BillingPeriod period) {
+        if (period == null) {
+            return UNKNOWN;
+        }
+
+        long seconds = period.getMillis() / 1000;
+        return seconds > 0 ? priceMicros * SECONDS_DAY / seconds : UNKNOWN;
+    }
+
+    /**
+     * Returns the savings in percent for the supplied price against the reference price.
+     *
+     * @param price The price per day in micros.
+     * @param reference The reference price per day in micros.
+     *
+     * @return The savings in percent, negative if the price is higher than the reference.
+     */
+    public static int getSavings(long price, long reference) {
+        if (price < 0 || reference <= 0) {
+            return 0;
+        }
+
+        return (int) ((reference - price) * 100 / reference);
+    }
+
+    /**
+     * Returns the horizon in seconds to compare the offers.
+     *
+     * @return The horizon in seconds to compare the offers.
+     */
+    public long getHorizon() {
+        return mHorizon;
+    }
+
+    /**
+     * Returns the number of offers added to this ranker.
+     *
+     * @return The number of offers added to this ranker.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Add all the offers of the supplied products.
+     *
+     * @param productDetailsList The products to be added.
+     *
+     * @return The {@link DynamicOfferRanker} object to allow for chaining of calls
+     *         to add methods.
+     */
+    public @NonNull DynamicOfferRanker addAll(@Nullable List<ProductDetails> productDetailsList) {
+        return addAll(DynamicPriceCatalog.from(productDetailsList));
+    }
+
+    /**
+     * Add all the offers of the supplied product.
+     *
+     * @param productDetails The product to be added.
+     *
+     * @return The {@link DynamicOfferRanker} object to allow for chaining of calls
+     *         to add methods.
+     */
+    public @NonNull DynamicOfferRanker add(@Nullable ProductDetails productDetails) {
+        if (productDetails == null) {
+            return this;
+        }
+
+        return addAll(DynamicPriceCatalog.from(Collections.singletonList(productDetails)));
+    }
+
+    /**
+     * Add all the offers of the supplied compact catalog.
+     *
+     * @param catalog The catalog to be added.
+     *
+     * @return The {@link DynamicOfferRanker} object to allow for chaining of calls
+     *         to add methods.
+     */
+    public @NonNull DynamicOfferRanker addAll(@NonNull DynamicPriceCatalog catalog) {
+        for (int offer = 0; offer < catalog.getOfferCount(); offer++) {
+            long cost = 0;
+            long covered = 0;
+            long recurring = UNKNOWN;
+
+            for (int phase = catalog.getPhaseStart(offer);
+                    phase < catalog.getPhaseEnd(offer); phase++) {
+                long price = catalog.getPrice(phase);
+                long period = catalog.getPeriodMillis(phase) / 1000;
+                int mode = catalog.getRecurrenceMode(phase);
+
+                if (period <= 0) {
+                    if (mode != ProductDetails.RecurrenceMode.NON_RECURRING) {
+                        cost = UNKNOWN;
+                        break;
+                    }
+
+                    // One-time purchase without any period, amortize it over the horizon.
+                    period = mHorizon;
+                }
+
+                long cycles;
+                if (mode == ProductDetails.RecurrenceMode.INFINITE_RECURRING) {
+                    cycles = Long.MAX_VALUE;
+                    recurring = price * SECONDS_DAY / period;
+                } else if (mode == ProductDetails.RecurrenceMode.FINITE_RECURRING) {
+                    cycles = Math.max(1, catalog.getCycleCount(phase));
+                } else {
+                    cycles = 1;
+                }
+
+                long remaining = mHorizon - covered;
+                if (remaining > 0) {
+                    long charged = Math.min(cycles, (remaining + period - 1) / period);
+                    cost += charged * price;
+                    covered += charged * period;
+                }
+
+                if (recurring == UNKNOWN) {
+                    recurring = price * SECONDS_DAY / period;
+                }
+            }
+
+            if (cost != UNKNOWN && covered > 0) {
+                add(catalog.getProductId(catalog.getOfferProduct(offer)),
+                        catalog.getBasePlanId(offer), catalog.getOfferId(offer),
+                        catalog.getOfferToken(offer), cost * SECONDS_DAY / covered, recurring);
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Add an offer with the normalized prices.
+     *
+     * @param productId The product id for the offer.
+     * @param basePlanId The base plan id for the offer.
+     * @param offerId The offer id for the offer.
+     * @param offerToken The offer token for the offer.
+     * @param effectivePrice The effective price per day in micros over the horizon.
+     * @param recurringPrice The recurring price per day in micros.
+     *
+     * @return The {@link DynamicOfferRanker} object to allow for chaining of calls
+     *         to add methods.
+     */
+    public @NonNull DynamicOfferRanker add(@NonNull String productId,
+            @Nullable String basePlanId, @Nullable String offerId, @Nullable String offerToken,
+            long effectivePrice, long recurringPrice) {
+        if (mSize == mProductIds.length) {
+            int capacity = mSize * 2;
+            mProductIds = Arrays.copyOf(mProductIds, capacity);
+            mBasePlanIds = Arrays.copyOf(mBasePlanIds, capacity);
+            mOfferIds = Arrays.copyOf(mOfferIds, capacity);
+            mOfferTokens = Arrays.copyOf(mOfferTokens, capacity);
+            mEffectivePrices = Arrays.copyOf(mEffectivePrices, capacity);
+            mRecurringPrices = Arrays.copyOf(mRecurringPrices, capacity);
+        }
+
+        mProductIds[mSize] = productId;
+        mBasePlanIds[mSize] = basePlanId;
+        mOfferIds[mSize] = offerId;
+        mOfferTokens[mSize] = offerToken;
+        mEffectivePrices[mSize] = effectivePrice;
+        mRecurringPrices[mSize] = recurringPrice;
+        mSize++;
+
+        return this;
+    }
+
+    /**
+     * Returns the index of the offer for the supplied ids.
+     *
+     * @param productId The product id for the offer.
+     * @param basePlanId The base plan id for the offer, {@code null} for the one-time offer.
+     * @param offerId The offer id for the offer, {@code null} for the base offer.
+     *
+     * @return The index of the offer for the supplied ids, otherwise {@link #UNKNOWN}.
+     */
+    public int indexOf(@NonNull String productId,
+            @Nullable String basePlanId, @Nullable String offerId) {
+        for (int i = 0; i < mSize; i++) {
+            if (productId.equals(mProductIds[i]) && equals(basePlanId, mBasePlanIds[i])
+                    && equals(offerId, mOfferIds[i])) {
+                return i;
+            }
+        }
+
+        return UNKNOWN;
+    }
+
+    /**
+     * Returns the index of the base offer for the supplied base plan id.
+     *
+     * @param basePlanId The base plan id like {@code Monthly.ID} or the product id for
+     *                   the one-time products like {@code Lifetime.ID}.
+     *
+     * @return The index of the base offer for the supplied id, otherwise {@link #UNKNOWN}.
+     */
+    public int indexOfPlan(@NonNull String basePlanId) {
+        for (int i = 0; i < mSize; i++) {
+            if (mOfferIds[i] == null && (basePlanId.equals(mBasePlanIds[i])
+                    || (mBasePlanIds[i] == null && basePlanId.equals(mProductIds[i])))) {
+                return i;
+            }
+        }
+
+        return UNKNOWN;
+    }
+
+    /**
+     * Returns the product id for the supplied index.
+     *
+     * @param index The index of the offer.
+     *
+     * @return The product id for the supplied index.
+     */
+    public @NonNull String getProductId(int index) {
+        return mProductIds[index];
+    }
+
+    /**
+     * Returns the base plan id for the supplied index.
+     *
+     * @param index The index of the offer.
+     *
+     * @return The base plan id for the supplied index.
+     */
+    public @Nullable String getBasePlanId(int index) {
+        return mBasePlanIds[index];
+    }
+
+    /**
+     * Returns the offer id for the supplied index.
+     *
+     * @param index The index of the offer.
+     *
+     * @return The offer id for the supplied index.
+     */
+    public @Nullable String getOfferId(int index) {
+        return mOfferIds[index];
+    }
+
+    /**
+     * Returns the offer token for the supplied index.
+     *
+     * @param index The index of the offer.
+     *
+     * @return The offer token for the supplied index.
+     */
+    public @Nullable String getOfferToken(int index) {
+        return mOfferTokens[index];
+    }
+
+    /**
+     * Returns the effective price per day in micros over the horizon.
+     *
+     * @param index The index of the offer.
+     *
+     * @return The effective price per day in micros over the horizon.
+     */
+    public long getEffectivePrice(int index) {
+        return mEffectivePrices[index];
+    }
+
+    /**
+     * Returns the recurring price per day in micros after all the intro phases.
+     *
+     * @param index The index of the offer.
+     *
+     * @return The recurring price per day in micros after all the intro phases.
+     */
+    public long getRecurringPrice(int index) {
+        return mRecurringPrices[index];
+    }
+
+    /**
+     * Returns the savings in percent for the recurring price of an offer against
+     * the reference offer.
+     *
+     * @param index The index of the offer.
+     * @param reference The index of the reference offer.
+     *
+     * @return The savings in percent, negative if the offer costs more than the reference.
+     */
+    public int getSavings(int index, int reference) {
+        if (index < 0 || index >= mSize || reference < 0 || reference >= mSize) {
+            return 0;
+        }
+
+        return getSavings(mRecurringPrices[index], mRecurringPrices[reference]);
+    }
+
+    /**
+     * Returns the savings in percent for a base plan against the reference base plan.
+     * <p>For example, {@code getSavings(Yearly.ID, Monthly.ID)}.
+     *
+     * @param basePlanId The base plan id or the one-time product id.
+     * @param referenceBasePlanId The reference base plan id or the one-time product id.
+     *
+     * @return The savings in percent, negative if the plan costs more than the reference.
+     *
+     * @see #indexOfPlan(String)
+     */
+    public int getSavings(@NonNull String basePlanId, @NonNull String referenceBasePlanId) {
+        return getSavings(indexOfPlan(basePlanId), indexOfPlan(referenceBasePlanId));
+    }
+
+    /**
+     * Returns the index of the best offer having the lowest effective price.
+     *
+     * @return The index of the best offer, otherwise {@link #UNKNOWN}.
+     */
+    public int getBest() {
+        int best = UNKNOWN;
+        for (int i = 0; i < mSize; i++) {
+            if (best == UNKNOWN || compare(i, best) < 0) {
+                best = i;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Rank all the offers by their effective price and then by their recurring price.
+     *
+     * @return The indexes of the offers from the best to the worst.
+     */
+    public @NonNull int[] rank() {
+        int[] indexes = new int[mSize];
+        for (int i = 0; i < mSize; i++) {
+            indexes[i] = i;
+        }
+
+        sort(indexes, new int[mSize], 0, mSize);
+        return indexes;
+    }
+
+    /**
+     * Compare two offers by their effective price and then by their recurring price.
+     *
+     * @param first The index of the first offer.
+     * @param second The index of the second offer.
+     *
+     * @return The comparison result of the two offers.
+     */
+    private int compare(int first, int second) {
+        int compare = Long.compare(mEffectivePrices[first], mEffectivePrices[second]);
+        return compare != 0 ? compare
+                : Long.compare(mRecurringPrices[first], mRecurringPrices[second]);
+    }
+
+    /**
+     * Stable merge sort for the supplied indexes without boxing.
+     *
+     * @param indexes The indexes to be sorted.
+     * @param buffer The buffer to merge the indexes.
+     * @param from The start index, inclusive.
+     * @param to The end index, exclusive.
+     */
+    private void sort(@NonNull int[] indexes, @NonNull int[] buffer, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+
+        int middle = (from + to) >>> 1;
+        sort(indexes, buffer, from, middle);
+        sort(indexes, buffer, middle, to);
+
+        int left = from, right = middle, position = from;
+        while (left < middle && right < to) {
+            buffer[position++] = compare(indexes[right], indexes[left]) < 0
+                    ? indexes[right++] : indexes[left++];
+        }
+
+        while (left < middle) {
+            buffer[position++] = indexes[left++];
+        }
+
+        while (right < to) {
+            buffer[position++] = indexes[right++];
+        }
+
+        System.arraycopy(buffer, from, indexes, from, to - from);
+    }
+
+    /**
+     * Checks whether the two strings are equal.
+     *
+     * @param first The first string to be compared.
+     * @param second The second string to be compared.
+     *
+     * @return {@code true} if both the strings are equal or {@code null}.
+     */
+    private static boolean equals(@Nullable String first, @Nullable String second) {
+        return first == null ? second == null : first.equals(second);
+    }
+}
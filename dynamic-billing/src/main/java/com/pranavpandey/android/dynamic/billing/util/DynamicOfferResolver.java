@@ -0,0 +1,477 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.android.billingclient.api.BillingFlowParams;
+import com.android.billingclient.api.ProductDetails;
+import com.pranavpandey.android.dynamic.billing.model.DynamicPlan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A resolver to index the subscription offers by their base plan id, offer id and tags.
+ * <p>It is updated when the product details arrive, so that the base plan, best offer and
+ * offer token lookups for the {@link BillingFlowParams} take a constant time.
+ *
+ * <p>The index is immutable and swapped on each update, so it can be read from any thread.
+ *
+ * <p>Base plans are indexed by their product and base plan id, the lookups by only the
+ * base plan id will resolve a plan only if it is offered by a single subscription.
+ */
+public class DynamicOfferResolver {
+
+    /**
+     * Map to hold the products mapped with their id.
+     */
+    private volatile Map<String, ProductDetails> mProducts;
+
+    /**
+     * Map to hold the base plans mapped with their product and base plan id.
+     */
+    private volatile Map<String, Plan> mPlans;
+
+    /**
+     * Map to hold the base plans of all the products mapped with their base plan id.
+     */
+    private volatile Map<String, List<Plan>> mBasePlans;
+
+    /**
+     * Constructor to initialize an object of this class.
+     */
+    public DynamicOfferResolver() {
+        this.mProducts = Collections.emptyMap();
+        this.mPlans = Collections.emptyMap();
+        this.mBasePlans = Collections.emptyMap();
+    }
+
+    /**
+     * Returns the key for the supplied product and base plan id.
+     *
+     * @param productId The id of the product.
+     * @param basePlanId The id of the base plan.
+     *
+     * @return The key for the supplied product and base plan id.
+     */
+    private static @NonNull String getKey(@NonNull String productId, @NonNull String basePlanId) {
+        return productId + "/" + basePlanId;
+    }
+
+    /**
+     * Index the offers of the supplied products.
+     * <p>Existing products with the same id will be replaced.
+     *
+     * @param productDetailsList The products to be indexed.
+     */
+    public synchronized void onProductDetails(@Nullable List<ProductDetails> productDetailsList) {
+        if (productDetailsList == null || productDetailsList.isEmpty()) {
+            return;
+        }
+
+        Map<String, ProductDetails> products = new HashMap<>(mProducts);
+        Map<String, Plan> plans = new HashMap<>(mPlans);
+
+        for (ProductDetails productDetails : productDetailsList) {
+            products.put(productDetails.getProductId(), productDetails);
+
+            Iterator<Plan> iterator = plans.values().iterator();
+            while (iterator.hasNext()) {
+                if (productDetails.getProductId().equals(
+                        iterator.next().productDetails.getProductId())) {
+                    iterator.remove();
+                }
+            }
+
+            if (productDetails.getSubscriptionOfferDetails() == null) {
+                continue;
+            }
+
+            DynamicOfferRanker ranker = new DynamicOfferRanker().add(productDetails);
+            Map<String, Plan> productPlans = new HashMap<>();
+            for (ProductDetails.SubscriptionOfferDetails offer
+                    : productDetails.getSubscriptionOfferDetails()) {
+                Plan plan = productPlans.get(offer.getBasePlanId());
+                if (plan == null) {
+                    plan = new Plan(productDetails, offer.getBasePlanId());
+                    productPlans.put(offer.getBasePlanId(), plan);
+                }
+
+                plan.add(offer);
+            }
+
+            for (int i = 0; i < ranker.size(); i++) {
+                Plan plan = productPlans.get(ranker.getBasePlanId(i));
+                if (plan != null && (plan.bestPrice == DynamicOfferRanker.UNKNOWN
+                        || ranker.getEffectivePrice(i) < plan.bestPrice)) {
+                    plan.best = plan.getOffer(ranker.getOfferId(i));
+                    plan.bestPrice = ranker.getEffectivePrice(i);
+                }
+            }
+
+            for (Plan plan : productPlans.values()) {
+                plans.put(getKey(productDetails.getProductId(), plan.basePlanId), plan);
+            }
+        }
+
+        Map<String, List<Plan>> basePlans = new HashMap<>();
+        for (Plan plan : plans.values()) {
+            List<Plan> basePlan = basePlans.get(plan.basePlanId);
+            if (basePlan == null) {
+                basePlan = new ArrayList<>(1);
+                basePlans.put(plan.basePlanId, basePlan);
+            }
+
+            basePlan.add(plan);
+        }
+
+        mProducts = Collections.unmodifiableMap(products);
+        mPlans = Collections.unmodifiableMap(plans);
+        mBasePlans = Collections.unmodifiableMap(basePlans);
+    }
+
+    /**
+     * Clear all the indexed offers.
+     */
+    public synchronized void clear() {
+        mProducts = Collections.emptyMap();
+        mPlans = Collections.emptyMap();
+        mBasePlans = Collections.emptyMap();
+    }
+
+    /**
+     * Returns the product details for the supplied product id.
+     *
+     * @param productId The id of the product.
+     *
+     * @return The product details for the supplied product id, if indexed.
+     */
+    public @Nullable ProductDetails getProductDetails(@Nullable String productId) {
+        return mProducts.get(productId);
+    }
+
+    /**
+     * Returns the base plan for the supplied product and base plan id.
+     *
+     * @param productId The id of the subscription like {@code Premium.ID}.
+     * @param basePlanId The id of the base plan like {@code Monthly.ID}.
+     *
+     * @return The base plan for the supplied ids, if indexed.
+     */
+    public @Nullable Plan getPlan(@NonNull String productId, @NonNull String basePlanId) {
+        return mPlans.get(getKey(productId, basePlanId));
+    }
+
+    /**
+     * Returns the base plan for the supplied base plan id under any subscription.
+     *
+     * @param basePlanId The id of the base plan like {@code Monthly.ID}.
+     *
+     * @return The base plan for the supplied id, if indexed and offered by a single
+     *         subscription.
+     *
+     * @see #getPlan(String, String)
+     */
+    public @Nullable Plan getPlan(@Nullable String basePlanId) {
+        List<Plan> plans = mBasePlans.get(basePlanId);
+        return plans != null && plans.size() == 1 ? plans.get(0) : null;
+    }
+
+    /**
+     * Returns the base plan for the supplied plan product.
+     *
+     * @param plan The plan product like {@code Monthly}.
+     *
+     * @return The base plan for the supplied plan product, if indexed.
+     */
+    public @Nullable Plan getPlan(@NonNull DynamicPlan plan) {
+        return getPlan(plan.getId());
+    }
+
+    /**
+     * Returns the base offer without any offer id for the supplied base plan.
+     *
+     * @param basePlanId The id of the base plan.
+     *
+     * @return The base offer for the supplied base plan, if indexed.
+     */
+    public @Nullable ProductDetails.SubscriptionOfferDetails getBaseOffer(
+            @Nullable String basePlanId) {
+        Plan plan = getPlan(basePlanId);
+        return plan != null ? plan.getBaseOffer() : null;
+    }
+
+    /**
+     * Returns the offer with the lowest effective price for the supplied base plan.
+     *
+     * @param basePlanId The id of the base plan.
+     *
+     * @return The best offer for the supplied base plan, if indexed.
+     *
+     * @see DynamicOfferRanker
+     */
+    public @Nullable ProductDetails.SubscriptionOfferDetails getBestOffer(
+            @Nullable String basePlanId) {
+        Plan plan = getPlan(basePlanId);
+        return plan != null ? plan.getBestOffer() : null;
+    }
+
+    /**
+     * Returns the offer token for the supplied base plan and offer id.
+     *
+     * @param basePlanId The id of the base plan.
+     * @param offerId The id of the offer, {@code null} for the base offer.
+     *
+     * @return The offer token for the supplied base plan and offer id, if indexed.
+     */
+    public @Nullable String getOfferToken(@Nullable String basePlanId, @Nullable String offerId) {
+        return getOfferToken(getPlan(basePlanId), offerId);
+    }
+
+    /**
+     * Returns the offer token for the supplied product, base plan and offer id.
+     *
+     * @param productId The id of the subscription.
+     * @param basePlanId The id of the base plan.
+     * @param offerId The id of the offer, {@code null} for the base offer.
+     *
+     * @return The offer token for the supplied product, base plan and offer id, if indexed.
+     */
+    public @Nullable String getOfferToken(@NonNull String productId,
+            @NonNull String basePlanId, @Nullable String offerId) {
+        return getOfferToken(getPlan(productId, basePlanId), offerId);
+    }
+
+    /**
+     * Returns the offer token for the supplied base plan and offer id.
+     *
+     * @param plan The base plan to get the offer.
+     * @param offerId The id of the offer, {@code null} for the base offer.
+     *
+     * @return The offer token for the supplied base plan and offer id, if any.
+     */
+    private static @Nullable String getOfferToken(@Nullable Plan plan,
+            @Nullable String offerId) {
+        ProductDetails.SubscriptionOfferDetails offer =
+                plan != null ? plan.getOffer(offerId) : null;
+
+        return offer != null ? offer.getOfferToken() : null;
+    }
+
+    /**
+     * Returns the product details params to launch the billing flow for the supplied
+     * base plan and offer.
+     *
+     * @param basePlanId The id of the base plan.
+     * @param offerId The id of the offer, {@code null} for the best offer.
+     *
+     * @return The product details params for the supplied base plan and offer, if indexed.
+     */
+    public @Nullable BillingFlowParams.ProductDetailsParams getProductDetailsParams(
+            @Nullable String basePlanId, @Nullable String offerId) {
+        return getProductDetailsParams(getPlan(basePlanId), offerId);
+    }
+
+    /**
+     * Returns the product details params to launch the billing flow for the supplied
+     * product, base plan and offer.
+     *
+     * @param productId The id of the subscription.
+     * @param basePlanId The id of the base plan.
+     * @param offerId The id of the offer, {@code null} for the best offer.
+     *
+     * @return The product details params for the supplied product, base plan and offer,
+     *         if indexed.
+     */
+    public @Nullable BillingFlowParams.ProductDetailsParams getProductDetailsParams(
+            @NonNull String productId, @NonNull String basePlanId, @Nullable String offerId) {
+        return getProductDetailsParams(getPlan(productId, basePlanId), offerId);
+    }
+
+    /**
+     * Returns the product details params to launch the billing flow for the supplied
+     * base plan and offer.
+     *
+     * @param plan The base plan to get the offer.
+     * @param offerId The id of the offer, {@code null} for the best offer.
+     *
+     * @return The product details params for the supplied base plan and offer, if any.
+     */
+    private static @Nullable BillingFlowParams.ProductDetailsParams getProductDetailsParams(
+            @Nullable Plan plan, @Nullable String offerId) {
+        if (plan == null) {
+            return null;
+        }
+
+        ProductDetails.SubscriptionOfferDetails offer = offerId != null
+                ? plan.getOffer(offerId) : plan.getBestOffer();
+        if (offer == null) {
+            return null;
+        }
+
+        return BillingFlowParams.ProductDetailsParams.newBuilder()
+                .setProductDetails(plan.getProductDetails())
+                .setOfferToken(offer.getOfferToken())
+                .build();
+    }
+
+    /**
+     * A class to hold the indexed offers of a base plan.
+     */
+    public static class Plan {
+
+        /**
+         * Product details for this base plan.
+         */
+        private final ProductDetails productDetails;
+
+        /**
+         * Id of this base plan.
+         */
+        private final String basePlanId;
+
+        /**
+         * Map to hold the offers mapped with their offer id.
+         */
+        private final Map<String, ProductDetails.SubscriptionOfferDetails> offers;
+
+        /**
+         * Map to hold the offers mapped with their tags.
+         */
+        private final Map<String, List<ProductDetails.SubscriptionOfferDetails>> tags;
+
+        /**
+         * Base offer without any offer id.
+         */
+        private ProductDetails.SubscriptionOfferDetails base;
+
+        /**
+         * Offer with the lowest effective price.
+         */
+        private ProductDetails.SubscriptionOfferDetails best;
+
+        /**
+         * Effective price per day in micros for the best offer.
+         */
+        private long bestPrice;
+
+        /**
+         * Constructor to initialize an object of this class.
+         *
+         * @param productDetails The product details for this base plan.
+         * @param basePlanId The id of this base plan.
+         */
+        Plan(@NonNull ProductDetails productDetails, @NonNull String basePlanId) {
+            this.productDetails = productDetails;
+            this.basePlanId = basePlanId;
+            this.offers = new HashMap<>();
+            this.tags = new HashMap<>();
+            this.bestPrice = DynamicOfferRanker.UNKNOWN;
+        }
+
+        /**
+         * Index the supplied offer.
+         *
+         * @param offer The offer to be indexed.
+         */
+        void add(@NonNull ProductDetails.SubscriptionOfferDetails offer) {
+            if (offer.getOfferId() == null) {
+                base = offer;
+            } else {
+                offers.put(offer.getOfferId(), offer);
+            }
+
+            for (String tag : offer.getOfferTags()) {
+                List<ProductDetails.SubscriptionOfferDetails> tagged = tags.get(tag);
+                if (tagged == null) {
+                    tagged = new ArrayList<>();
+                    tags.put(tag, tagged);
+                }
+
+                tagged.add(offer);
+            }
+        }
+
+        /**
+         * Returns the product details for this base plan.
+         *
+         * @return The product details for this base plan.
+         */
+        public @NonNull ProductDetails getProductDetails() {
+            return productDetails;
+        }
+
+        /**
+         * Returns the id of this base plan.
+         *
+         * @return The id of this base plan.
+         */
+        public @NonNull String getBasePlanId() {
+            return basePlanId;
+        }
+
+        /**
+         * Returns the base offer without any offer id.
+         *
+         * @return The base offer without any offer id.
+         */
+        public @Nullable ProductDetails.SubscriptionOfferDetails getBaseOffer() {
+            return base;
+        }
+
+        /**
+         * Returns the offer with the lowest effective price.
+         *
+         * @return The offer with the lowest effective price, otherwise the base offer.
+         */
+        public @Nullable ProductDetails.SubscriptionOfferDetails getBestOffer() {
+            return best != null ? best : base;
+        }
+
+        /**
+         * Returns the offer for the supplied offer id.
+         *
+         * @param offerId The id of the offer, {@code null} for the base offer.
+         *
+         * @return The offer for the supplied offer id, if any.
+         */
+        public @Nullable ProductDetails.SubscriptionOfferDetails getOffer(
+                @Nullable String offerId) {
+            return offerId != null ? offers.get(offerId) : base;
+        }
+
+        /**
+         * Returns the offers for the supplied tag.
+         *
+         * @param tag The tag of the offers.
+         *
+         * @return The offers for the supplied tag.
+         */
+        public @NonNull List<ProductDetails.SubscriptionOfferDetails> getOffers(
+                @Nullable String tag) {
+            List<ProductDetails.SubscriptionOfferDetails> tagged = tags.get(tag);
+            return tagged != null ? Collections.unmodifiableList(tagged)
+                    : Collections.<ProductDetails.SubscriptionOfferDetails>emptyList();
+        }
+    }
+}
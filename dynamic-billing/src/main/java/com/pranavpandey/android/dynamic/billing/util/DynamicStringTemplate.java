@@ -0,0 +1,352 @@
+/*
+ * Copyright 2022-2025 Pranav Pandey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pranavpandey.android.dynamic.billing.util;
+
+import android.content.Context;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.StringRes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A pre-parsed string format template to append the formatted values directly into
+ * a {@link StringBuilder} without any intermediate format result.
+ * <p>Only the string conversions like {@code %s} and {@code %1$s} are parsed, other
+ * templates will fall back to the {@link String#format(String, Object...)}.
+ */
+public final class DynamicStringTemplate {
+
+    /**
+     * Maximum number of templates to be cached.
+     */
+    public static final int CACHE_SIZE = 32;
+
+    /**
+     * Cache to hold the parsed templates mapped with their string resource.
+     */
+    private static final LruCache<Integer, DynamicStringTemplate> sCache =
+            new LruCache<>(CACHE_SIZE);
+
+    /**
+     * Locale used to resolve this template.
+     */
+    private final @Nullable Locale locale;
+
+    /**
+     * Original format string for this template.
+     */
+    private final String format;
+
+    /**
+     * Literal segments between the arguments, {@code null} if the template is not parsed.
+     */
+    private final @Nullable String[] literals;
+
+    /**
+     * Zero based argument indexes between the literal segments.
+     */
+    private final @Nullable int[] arguments;
+
+    /**
+     * Constructor to initialize an object of this class.
+     *
+     * @param locale The locale used to resolve this template.
+     * @param format The format string to be parsed.
+     */
+    private DynamicStringTemplate(@Nullable Locale locale, @NonNull String format) {
+        this.locale = locale;
+        this.format = format;
+
+        List<String> literals = new ArrayList<>();
+        List<Integer> arguments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int next = 0;
+        boolean parsed = true;
+
+        for (int i = 0; i < format.length() && parsed; i++) {
+            char c = format.charAt(i);
+            if (c != '%') {
+                literal.append(c);
+                continue;
+            }
+
+            if (i + 1 >= format.length()) {
+                parsed = false;
+                break;
+            }
+
+            if (format.charAt(i + 1) == '%') {
+                literal.append('%');
+                i++;
+                continue;
+            }
+
+            int j = i + 1;
+            int index = 0;
+            while (j < format.length() && Character.isDigit(format.charAt(j))) {
+                index = index * 10 + (format.charAt(j) - '0');
+                j++;
+            }
+
+            if (j > i + 1) {
+                if (j + 1 >= format.length() || format.charAt(j) != '$'
+                        || format.charAt(j + 1) != 's' || index == 0) {
+                    parsed = false;
+                    break;
+                }
+
+                index--;
+                j++;
+            } else if (format.charAt(j) == 's') {
+                index = next++;
+            } else {
+                parsed = false;
+                break;
+            }
+
+            literals.add(literal.toString());
+            arguments.add(index);
+            literal.setLength(0);
+            i = j;
+        }
+
+        if (parsed) {
+            literals.add(literal.toString());
+
+            this.literals = literals.toArray(new String[0]);
+            this.arguments = new int[arguments.size()];
+            for (int i = 0; i < arguments.size(); i++) {
+                this.arguments[i] = arguments.get(i);
+            }
+        } else {
+            this.literals = null;
+            this.arguments = null;
+        }
+    }
+
+    /**
+     * Parse the supplied format string into a template.
+     *
+     * @param format The format string to be parsed.
+     *
+     * @return The parsed template for the supplied format string.
+     */
+    public static @NonNull DynamicStringTemplate compile(@NonNull String format) {
+        return new DynamicStringTemplate(null, format);
+    }
+
+    /**
+     * Returns the parsed template for the supplied string resource.
+     * <p>Templates are parsed once per locale and cached until the locale changes or
+     * the {@link DynamicBillingUtils#clearCache()} is called.
+     *
+     * @param context The context to retrieve resources.
+     * @param stringRes The string resource for the format.
+     *
+     * @return The parsed template for the supplied string resource.
+     */
+    public static @NonNull DynamicStringTemplate get(
+            @NonNull Context context, @StringRes int stringRes) {
+        Locale locale = DynamicBillingUtils.getLocale(context);
+        DynamicStringTemplate template = sCache.get(stringRes);
+
+        if (template == null || !locale.equals(template.locale)) {
+            template = new DynamicStringTemplate(locale, context.getString(stringRes));
+            sCache.put(stringRes, template);
+        }
+
+        return template;
+    }
+
+    /**
+     * Clear the cached templates.
+     */
+    public static void clearCache() {
+        sCache.evictAll();
+    }
+
+    /**
+     * Returns the original format string for this template.
+     *
+     * @return The original format string for this template.
+     */
+    public @NonNull String getFormat() {
+        return format;
+    }
+
+    /**
+     * Returns whether this template has been parsed.
+     *
+     * @return {@code true} if this template has been parsed, otherwise it will fall back
+     *         to the {@link String#format(String, Object...)}.
+     */
+    public boolean isParsed() {
+        return literals != null;
+    }
+
+    /**
+     * Returns whether this template can be folded with two arguments.
+     *
+     * @return {@code true} if this template has exactly the first and second arguments.
+     */
+    private boolean isFoldable() {
+        return arguments != null && arguments.length == 2
+                && arguments[0] + arguments[1] == 1 && arguments[0] != arguments[1];
+    }
+
+    /**
+     * Append the formatted value into the supplied builder.
+     *
+     * @param builder The builder to append the formatted value.
+     * @param first The first argument for this template.
+     *
+     * @return The supplied builder to allow for chaining of calls.
+     */
+    public @NonNull StringBuilder append(@NonNull StringBuilder builder,
+            @Nullable CharSequence first) {
+        return append(builder, first, null);
+    }
+
+    /**
+     * Append the formatted values into the supplied builder.
+     *
+     * @param builder The builder to append the formatted values.
+     * @param first The first argument for this template.
+     * @param second The second argument for this template.
+     *
+     * @return The supplied builder to allow for chaining of calls.
+     */
+    public @NonNull StringBuilder append(@NonNull StringBuilder builder,
+            @Nullable CharSequence first, @Nullable CharSequence second) {
+        if (literals == null || arguments == null) {
+            return builder.append(String.format(format, first, second));
+        }
+
+        for (int i = 0; i < arguments.length; i++) {
+            builder.append(literals[i]);
+
+            if (arguments[i] == 0) {
+                builder.append(first);
+            } else if (arguments[i] == 1) {
+                builder.append(second);
+            } else {
+                builder.append((Object) null);
+            }
+        }
+
+        return builder.append(literals[arguments.length]);
+    }
+
+    /**
+     * Returns the formatted string for the supplied values.
+     *
+     * @param first The first argument for this template.
+     * @param second The second argument for this template.
+     *
+     * @return The formatted string for the supplied values.
+     */
+    public @NonNull String format(@Nullable CharSequence first, @Nullable CharSequence second) {
+        return append(new StringBuilder(), first, second).toString();
+    }
+
+    /**
+     * Apply this template on the current content of the supplied builder by using it
+     * as the first argument.
+     *
+     * @param builder The builder to be wrapped.
+     * @param second The second argument for this template.
+     *
+     * @return The supplied builder to allow for chaining of calls.
+     */
+    public @NonNull StringBuilder wrap(@NonNull StringBuilder builder,
+            @Nullable CharSequence second) {
+        if (!isFoldable() || literals == null || arguments == null) {
+            String first = builder.toString();
+            builder.setLength(0);
+
+            return append(builder, first, second);
+        }
+
+        if (arguments[0] == 0) {
+            builder.insert(0, literals[0]);
+            builder.append(literals[1]).append(second);
+        } else {
+            builder.insert(0, literals[1]).insert(0, second).insert(0, literals[0]);
+        }
+
+        return builder.append(literals[2]);
+    }
+
+    /**
+     * Append the supplied values into the builder as if this template is applied
+     * repeatedly with the previous result as the first argument and the next value as
+     * the second argument.
+     * <p>It works in a linear time and does not create any intermediate format result.
+     *
+     * @param builder The builder to append the formatted values.
+     * @param values The values to be folded.
+     *
+     * @return The supplied builder to allow for chaining of calls.
+     */
+    public @NonNull StringBuilder fold(@NonNull StringBuilder builder,
+            @NonNull List<? extends CharSequence> values) {
+        int size = values.size();
+        if (size == 0) {
+            return builder;
+        }
+
+        if (!isFoldable() || literals == null || arguments == null) {
+            int start = builder.length();
+            builder.append(values.get(0));
+
+            for (int i = 1; i < size; i++) {
+                String first = builder.substring(start);
+                builder.setLength(start);
+                append(builder, first, values.get(i));
+            }
+
+            return builder;
+        }
+
+        if (arguments[0] == 0) {
+            for (int i = 1; i < size; i++) {
+                builder.append(literals[0]);
+            }
+
+            builder.append(values.get(0));
+            for (int i = 1; i < size; i++) {
+                builder.append(literals[1]).append(values.get(i)).append(literals[2]);
+            }
+        } else {
+            for (int i = size - 1; i > 0; i--) {
+                builder.append(literals[0]).append(values.get(i)).append(literals[1]);
+            }
+
+            builder.append(values.get(0));
+            for (int i = 1; i < size; i++) {
+                builder.append(literals[2]);
+            }
+        }
+
+        return builder;
+    }
+}
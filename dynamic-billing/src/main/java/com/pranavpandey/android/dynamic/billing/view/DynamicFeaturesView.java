@@ -17,18 +17,23 @@
 package com.pranavpandey.android.dynamic.billing.view;
 
 import android.content.Context;
+import android.graphics.drawable.Drawable;
 import android.util.AttributeSet;
+import android.util.SparseArray;
 
 import androidx.annotation.AttrRes;
 import androidx.annotation.LayoutRes;
+import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.pranavpandey.android.dynamic.billing.R;
 import com.pranavpandey.android.dynamic.billing.adapter.DynamicFeaturesAdapter;
 import com.pranavpandey.android.dynamic.billing.model.base.DynamicFeature;
+import com.pranavpandey.android.dynamic.billing.util.DynamicBillingUtils;
 import com.pranavpandey.android.dynamic.support.model.DynamicInfo;
 import com.pranavpandey.android.dynamic.support.recyclerview.DynamicRecyclerViewFrame;
 import com.pranavpandey.android.dynamic.support.recyclerview.DynamicRecyclerViewNested;
@@ -36,13 +41,86 @@ import com.pranavpandey.android.dynamic.support.util.DynamicLayoutUtils;
 import com.pranavpandey.android.dynamic.support.util.DynamicResourceUtils;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A {@link DynamicRecyclerViewFrame} to display the list of {@link DynamicFeature}.
+ * <p>Use {@link #updateFeatures()} to compute the changes in the background and re-bind
+ * only the affected cards.
+ *
+ * <p>The icons and text are resolved at the bind time, so only the visible features are
+ * resolved and all the cards share the same big icon state.
+ *
+ * <p>Multiple rows can share the feature cards by using a common view pool.
+ *
+ * <p>Very large catalogs can be loaded in pages by using a {@link DataSource}, only the
+ * pages around the viewport will be materialized.
+ *
+ * @see #setDataSource(DataSource)
+ * @see #createRecycledViewPool(int)
+ * @see #setRecycledViewPool(RecyclerView.RecycledViewPool)
  */
 public abstract class DynamicFeaturesView extends DynamicRecyclerViewNested {
 
+    /**
+     * Default number of cards to be prefetched.
+     */
+    public static final int DEFAULT_PREFETCH_ITEM_COUNT = 4;
+
+    /**
+     * Number of features to be loaded in a page from the data source.
+     */
+    public static final int PAGE_SIZE = 20;
+
+    /**
+     * Adapter used by this view.
+     */
+    private DynamicFeaturesAdapter mAdapter;
+
+    /**
+     * Data used by the adapter, it is updated in place to dispatch the changes.
+     * <p>The {@code null} entries will be resolved at the bind time.
+     */
+    private List<DynamicInfo> mData;
+
+    /**
+     * Features displayed by this view.
+     */
+    private List<DynamicFeature> mFeatures;
+
+    /**
+     * Constant state of the big icon shared by all the cards.
+     */
+    private Drawable.ConstantState mIconBig;
+
+    /**
+     * Displayed state of the features to compute the changes.
+     */
+    private List<State> mStates;
+
+    /**
+     * Generation of the latest update to discard the stale changes.
+     */
+    private int mGeneration;
+
+    /**
+     * Data source to load the features in pages.
+     */
+    private DataSource mDataSource;
+
+    /**
+     * Loaded pages of the features mapped with their page index.
+     */
+    private final SparseArray<List<DynamicFeature>> mPages = new SparseArray<>();
+
+    /**
+     * Scroll listener to release the pages outside the window.
+     */
+    private RecyclerView.OnScrollListener mScrollListener;
+
     public DynamicFeaturesView(@NonNull Context context) {
         this(context, null);
     }
@@ -67,8 +145,59 @@ public abstract class DynamicFeaturesView extends DynamicRecyclerViewNested {
 
     @Override
     public @Nullable RecyclerView.LayoutManager getRecyclerViewLayoutManager() {
-        return DynamicLayoutUtils.getLinearLayoutManager(
+        RecyclerView.LayoutManager layoutManager = DynamicLayoutUtils.getLinearLayoutManager(
                 getContext(), LinearLayoutManager.HORIZONTAL);
+
+        if (layoutManager instanceof LinearLayoutManager) {
+            ((LinearLayoutManager) layoutManager).setInitialPrefetchItemCount(
+                    getPrefetchItemCount());
+            ((LinearLayoutManager) layoutManager).setRecycleChildrenOnDetach(true);
+        }
+
+        return layoutManager;
+    }
+
+    /**
+     * Returns the number of cards to be prefetched when this view is nested inside a
+     * scrolling parent.
+     *
+     * @return The number of cards to be prefetched.
+     */
+    protected int getPrefetchItemCount() {
+        int cardWidth = getResources().getDimensionPixelSize(R.dimen.ads_preview_width);
+        return cardWidth > 0 ? getResources().getDisplayMetrics().widthPixels / cardWidth + 1
+                : DEFAULT_PREFETCH_ITEM_COUNT;
+    }
+
+    /**
+     * Set a view pool to share the feature cards with other features views.
+     *
+     * @param pool The view pool to be set.
+     *
+     * @return The {@link DynamicFeaturesView} object to allow for chaining of calls to
+     *         set methods.
+     *
+     * @see #createRecycledViewPool(int)
+     */
+    public @NonNull DynamicFeaturesView setRecycledViewPool(
+            @Nullable RecyclerView.RecycledViewPool pool) {
+        getRecyclerView().setRecycledViewPool(pool);
+
+        return this;
+    }
+
+    /**
+     * Returns a view pool to be shared among the features views of the same screen.
+     *
+     * @param maxCards The maximum number of feature cards to be kept in the pool.
+     *
+     * @return A view pool to be shared among the features views.
+     */
+    public static @NonNull RecyclerView.RecycledViewPool createRecycledViewPool(int maxCards) {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.setMaxRecycledViews(DynamicFeaturesAdapter.TYPE_FEATURE, maxCards);
+
+        return pool;
     }
 
     /**
@@ -78,20 +207,435 @@ public abstract class DynamicFeaturesView extends DynamicRecyclerViewNested {
      */
     public abstract @NonNull List<DynamicFeature> getFeatures();
 
+    /**
+     * Returns the big icon to be displayed for the features.
+     * <p>All the returned drawables share the same constant state.
+     *
+     * @return The big icon to be displayed for the features.
+     */
+    protected @Nullable Drawable getIconBig() {
+        if (mIconBig == null) {
+            Drawable drawable = DynamicResourceUtils.getDrawable(
+                    getContext(), R.drawable.adb_ic_feature);
+            if (drawable == null || drawable.getConstantState() == null) {
+                return drawable;
+            }
+
+            mIconBig = drawable.getConstantState();
+        }
+
+        return mIconBig.newDrawable(getResources());
+    }
+
+    /**
+     * Returns the dynamic info to be displayed for the supplied feature.
+     * <p>It will be called at the bind time, override this method to reflect the feature
+     * state like enabled in the card.
+     *
+     * @param feature The feature to be displayed.
+     *
+     * @return The dynamic info to be displayed for the supplied feature.
+     */
+    protected @NonNull DynamicInfo getInfo(@NonNull DynamicFeature feature) {
+        return new DynamicInfo()
+                .setIcon(DynamicResourceUtils.getDrawable(
+                        getContext(), feature.getIcon()))
+                .setTitle(getContext().getString(feature.getTitle()))
+                .setDescription(getContext().getString(feature.getSubtitle()))
+                .setIconBig(getIconBig());
+    }
+
+    /**
+     * Returns the data source to load the features in pages.
+     *
+     * @return The data source to load the features in pages.
+     */
+    public @Nullable DataSource getDataSource() {
+        return mDataSource;
+    }
+
+    /**
+     * Set the data source to load the features in pages instead of {@link #getFeatures()}.
+     *
+     * @param dataSource The data source to be set, {@code null} to use the features list.
+     *
+     * @return The {@link DynamicFeaturesView} object to allow for chaining of calls to
+     *         set methods.
+     */
+    public @NonNull DynamicFeaturesView setDataSource(@Nullable DataSource dataSource) {
+        this.mDataSource = dataSource;
+
+        return setAdapter();
+    }
+
+    /**
+     * Returns the feature at the supplied position from the data source.
+     * <p>The page containing the feature will be loaded if required.
+     *
+     * @param position The position of the feature.
+     *
+     * @return The feature at the supplied position.
+     */
+    private @NonNull DynamicFeature getPagedFeature(int position) {
+        int page = position / PAGE_SIZE;
+        List<DynamicFeature> features = mPages.get(page);
+        if (features == null) {
+            int start = page * PAGE_SIZE;
+            features = mDataSource.getFeatures(start, Math.min(PAGE_SIZE, mData.size() - start));
+            mPages.put(page, features);
+        }
+
+        return features.get(position - page * PAGE_SIZE);
+    }
+
+    /**
+     * Release the pages outside the window of one page around the viewport.
+     */
+    private void releasePages() {
+        if (mDataSource == null || mAdapter == null
+                || !(getRecyclerView().getLayoutManager() instanceof LinearLayoutManager)) {
+            return;
+        }
+
+        LinearLayoutManager layoutManager =
+                (LinearLayoutManager) getRecyclerView().getLayoutManager();
+        int first = layoutManager.findFirstVisibleItemPosition();
+        int last = layoutManager.findLastVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION || last == RecyclerView.NO_POSITION) {
+            return;
+        }
+
+        int firstPage = first / PAGE_SIZE - 1;
+        int lastPage = last / PAGE_SIZE + 1;
+        for (int i = mPages.size() - 1; i >= 0; i--) {
+            int page = mPages.keyAt(i);
+            if (page < firstPage || page > lastPage) {
+                mPages.removeAt(i);
+                mAdapter.release(page * PAGE_SIZE, (page + 1) * PAGE_SIZE);
+            }
+        }
+    }
+
+    /**
+     * Set the adapter to load the features in pages from the data source.
+     */
+    private void setPagedAdapter() {
+        mGeneration++;
+        mFeatures = null;
+        mStates = null;
+        mPages.clear();
+        mData = new ArrayList<>(Collections.<DynamicInfo>nCopies(
+                Math.max(0, mDataSource.getCount()), null));
+        mAdapter = new DynamicFeaturesAdapter(mData, new DynamicFeaturesAdapter.Resolver() {
+            @Override
+            public @NonNull DynamicInfo onResolveInfo(int position) {
+                return getInfo(getPagedFeature(position));
+            }
+
+            @Override
+            public long getItemId(int position) {
+                return State.getItemId(getPagedFeature(position).getId());
+            }
+        });
+
+        if (mScrollListener == null) {
+            mScrollListener = new RecyclerView.OnScrollListener() {
+                @Override
+                public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                    releasePages();
+                }
+            };
+
+            getRecyclerView().addOnScrollListener(mScrollListener);
+        }
+
+        setAdapter(mAdapter);
+    }
+
     public @NonNull DynamicFeaturesView setAdapter() {
-        List<DynamicInfo> features = new ArrayList<>();
-        for (DynamicFeature feature : getFeatures()) {
-            features.add(new DynamicInfo()
-                    .setIcon(DynamicResourceUtils.getDrawable(
-                            getContext(), feature.getIcon()))
-                    .setTitle(getContext().getString(feature.getTitle()))
-                    .setDescription(getContext().getString(feature.getSubtitle()))
-                    .setIconBig(DynamicResourceUtils.getDrawable(
-                            getContext(), R.drawable.adb_ic_feature)));
+        if (mDataSource != null) {
+            setPagedAdapter();
+
+            return this;
+        }
+
+        mGeneration++;
+        mFeatures = new ArrayList<>(getFeatures());
+        mStates = State.of(mFeatures);
+        mData = new ArrayList<>(Collections.<DynamicInfo>nCopies(mFeatures.size(), null));
+        mAdapter = new DynamicFeaturesAdapter(mData, new DynamicFeaturesAdapter.Resolver() {
+            @Override
+            public @NonNull DynamicInfo onResolveInfo(int position) {
+                return getInfo(mFeatures.get(position));
+            }
+
+            @Override
+            public long getItemId(int position) {
+                return mStates.get(position).itemId;
+            }
+        });
+
+        setAdapter(mAdapter);
+
+        return this;
+    }
+
+    /**
+     * Update the features incrementally after computing the changes in the background.
+     * <p>Only the inserted, removed, moved or changed cards will be updated, so that an
+     * entitlement flip re-binds only the affected features.
+     * <p>The pages will be loaded again from the data source, if any.
+     *
+     * @return The {@link DynamicFeaturesView} object to allow for chaining of calls to
+     *         set methods.
+     */
+    @MainThread
+    public @NonNull DynamicFeaturesView updateFeatures() {
+        if (mDataSource != null && mAdapter != null) {
+            mGeneration++;
+            mPages.clear();
+            mData.clear();
+            mData.addAll(Collections.<DynamicInfo>nCopies(
+                    Math.max(0, mDataSource.getCount()), null));
+            mAdapter.notifyDataSetChanged();
+
+            return this;
+        }
+
+        if (mAdapter == null || mStates == null) {
+            return setAdapter();
         }
 
-        setAdapter(new DynamicFeaturesAdapter(features));
+        final List<DynamicFeature> features = new ArrayList<>(getFeatures());
+        final List<State> oldStates = mStates;
+        final List<State> newStates = State.of(features);
+        final int generation = ++mGeneration;
+
+        DynamicBillingUtils.getExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                final DiffUtil.DiffResult result = DiffUtil.calculateDiff(
+                        new Callback(oldStates, newStates));
+
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation == mGeneration) {
+                            onFeaturesDiff(features, oldStates, newStates, result);
+                        }
+                    }
+                });
+            }
+        });
 
         return this;
     }
+
+    /**
+     * Apply the computed changes to the adapter data and dispatch them.
+     *
+     * @param features The updated features.
+     * @param oldStates The displayed state of the features.
+     * @param newStates The updated state of the features.
+     * @param result The computed changes.
+     */
+    @MainThread
+    private void onFeaturesDiff(@NonNull List<DynamicFeature> features,
+            @NonNull List<State> oldStates, @NonNull List<State> newStates,
+            @NonNull DiffUtil.DiffResult result) {
+        Map<State, DynamicInfo> unchanged = new HashMap<>();
+        for (int i = 0; i < oldStates.size() && i < mData.size(); i++) {
+            unchanged.put(oldStates.get(i), mData.get(i));
+        }
+
+        List<DynamicInfo> data = new ArrayList<>(features.size());
+        for (int i = 0; i < features.size(); i++) {
+            data.add(unchanged.get(newStates.get(i)));
+        }
+
+        mFeatures = features;
+        mStates = newStates;
+        mData.clear();
+        mData.addAll(data);
+        result.dispatchUpdatesTo(mAdapter);
+    }
+
+    /**
+     * A class to hold the displayed state of a feature.
+     */
+    private static final class State {
+
+        /**
+         * Id of the feature.
+         */
+        final String id;
+
+        /**
+         * Icon resource of the feature.
+         */
+        final int icon;
+
+        /**
+         * Title resource of the feature.
+         */
+        final int title;
+
+        /**
+         * Subtitle resource of the feature.
+         */
+        final int subtitle;
+
+        /**
+         * {@code true} if the feature is enabled.
+         */
+        final boolean enabled;
+
+        /**
+         * Stable item id computed from the feature id.
+         */
+        final long itemId;
+
+        /**
+         * Constructor to initialize an object of this class.
+         *
+         * @param feature The feature to be used.
+         */
+        State(@NonNull DynamicFeature feature) {
+            this.id = feature.getId();
+            this.icon = feature.getIcon();
+            this.title = feature.getTitle();
+            this.subtitle = feature.getSubtitle();
+            this.enabled = feature.isEnabled();
+            this.itemId = getItemId(id);
+        }
+
+        /**
+         * Returns the stable item id for the supplied feature id.
+         * <p>It uses the 64-bit FNV-1a hash to keep the collisions negligible.
+         *
+         * @param id The id of the feature.
+         *
+         * @return The stable item id for the supplied feature id.
+         */
+        static long getItemId(@NonNull String id) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < id.length(); i++) {
+                hash ^= id.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+
+            return hash == RecyclerView.NO_ID ? 0 : hash;
+        }
+
+        /**
+         * Returns the state of the supplied features.
+         *
+         * @param features The features to be used.
+         *
+         * @return The state of the supplied features.
+         */
+        static @NonNull List<State> of(@NonNull List<DynamicFeature> features) {
+            List<State> states = new ArrayList<>(features.size());
+            for (DynamicFeature feature : features) {
+                states.add(new State(feature));
+            }
+
+            return Collections.unmodifiableList(states);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof State)) {
+                return false;
+            }
+
+            State state = (State) o;
+            return icon == state.icon && title == state.title && subtitle == state.subtitle
+                    && enabled == state.enabled && id.equals(state.id);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = id.hashCode();
+            result = 31 * result + icon;
+            result = 31 * result + title;
+            result = 31 * result + subtitle;
+            return 31 * result + (enabled ? 1 : 0);
+        }
+    }
+
+    /**
+     * A callback to compute the changes between the feature states.
+     */
+    private static final class Callback extends DiffUtil.Callback {
+
+        /**
+         * Displayed state of the features.
+         */
+        private final List<State> mOld;
+
+        /**
+         * Updated state of the features.
+         */
+        private final List<State> mNew;
+
+        /**
+         * Constructor to initialize an object of this class.
+         *
+         * @param oldStates The displayed state of the features.
+         * @param newStates The updated state of the features.
+         */
+        Callback(@NonNull List<State> oldStates, @NonNull List<State> newStates) {
+            this.mOld = oldStates;
+            this.mNew = newStates;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return mOld.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return mNew.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return mOld.get(oldItemPosition).id.equals(mNew.get(newItemPosition).id);
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            return mOld.get(oldItemPosition).equals(mNew.get(newItemPosition));
+        }
+    }
+
+    /**
+     * An interface to load the features in pages for the very large catalogs.
+     */
+    public interface DataSource {
+
+        /**
+         * Returns the total number of features.
+         *
+         * @return The total number of features.
+         */
+        int getCount();
+
+        /**
+         * Returns the features for the supplied range.
+         * <p>It will be called on the main thread when a page is bound for the first time.
+         *
+         * @param start The position of the first feature.
+         * @param count The number of features to be returned.
+         *
+         * @return The features for the supplied range.
+         */
+        @NonNull List<DynamicFeature> getFeatures(int start, int count);
+    }
 }